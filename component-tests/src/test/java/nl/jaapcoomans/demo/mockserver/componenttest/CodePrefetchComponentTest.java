@@ -0,0 +1,125 @@
+package nl.jaapcoomans.demo.mockserver.componenttest;
+
+import io.restassured.RestAssured;
+import io.restassured.common.mapper.TypeRef;
+import nl.jaapcoomans.demo.mockserver.componenttest.restapimodel.Game;
+import nl.jaapcoomans.demo.mockserver.componenttest.restapimodel.GameStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockserver.Version;
+import org.mockserver.client.MockServerClient;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MockServerContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.images.builder.ImageFromDockerfile;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+@Testcontainers
+class CodePrefetchComponentTest {
+    private static final ImageFromDockerfile gameServiceImage =
+            new ImageFromDockerfile().withFileFromPath(".", Paths.get("../game-service"));
+
+    private static final Network network = Network.newNetwork();
+
+    @Container
+    private static final MockServerContainer generatorContainer =
+            new MockServerContainer(Version.getVersion())
+                    .withNetwork(network)
+                    .withNetworkAliases("generator");
+
+    // Started once the generator mock is primed, so the first refill already meets a generator without batches
+    private static final GenericContainer<?> gameService =
+            new GenericContainer<>(gameServiceImage)
+                    .withEnv("GENERATOR_URL", "http://generator:1080")
+                    .withEnv("CHECKER_URL", "http://checker:1080")
+                    .withEnv("TOURNAMENT_SVC_URL", "http://tournament-svc:1080")
+                    .withNetwork(network)
+                    .withExposedPorts(8080);
+
+    private static MockServerClient generatorMock;
+
+    @BeforeAll
+    static void init() {
+        generatorMock = new MockServerClient(
+                generatorContainer.getContainerIpAddress(),
+                generatorContainer.getServerPort());
+
+        // A generator that ignores the count and always answers a single code
+        generatorMock
+                .when(request()
+                        .withMethod("GET")
+                        .withPath("/generate"))
+                .respond(response()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(createACode())
+                        .withStatusCode(200));
+
+        gameService.start();
+    }
+
+    @AfterAll
+    static void stop() {
+        gameService.stop();
+    }
+
+    @Test
+    @DisplayName("A generator without a batch endpoint fills the code buffer and serves batches of games with single calls.")
+    void testGeneratorWithoutBatchEndpoint() throws InterruptedException {
+        // When a batch of games is started
+        var games = RestAssured.given()
+                .header("Accept", "application/json")
+                .baseUri("http://localhost:" + gameService.getFirstMappedPort())
+                .queryParam("count", 3)
+                .when().post("/games/batch")
+                .then().statusCode(200)
+                .extract().as(Game[].class);
+
+        // Then every game is in progress
+        assertThat(games).hasSize(3).allSatisfy(game -> assertThat(game.getStatus()).isEqualTo(GameStatus.IN_PROGRESS));
+
+        // And the buffer is filled without a single failure counted against the generator
+        var metrics = awaitBufferedCodes();
+        assertThat(metrics.get("generator.buffer.size")).isPositive();
+        assertThat(metrics.get("generator.refill.failures")).isZero();
+        assertThat(metrics.get("generator.failures")).isZero();
+        assertThat(metrics.get("generator.breaker.opened")).isZero();
+    }
+
+    private static Map<String, Long> awaitBufferedCodes() throws InterruptedException {
+        var deadline = System.currentTimeMillis() + 5000;
+        Map<String, Long> metrics;
+        do {
+            metrics = RestAssured.given()
+                    .header("Accept", "application/json")
+                    .baseUri("http://localhost:" + gameService.getFirstMappedPort())
+                    .when().get("/metrics")
+                    .as(new TypeRef<Map<String, Long>>() {
+                    });
+            if (metrics.get("generator.buffer.size") == 0) {
+                Thread.sleep(50);
+            }
+        } while (metrics.get("generator.buffer.size") == 0 && System.currentTimeMillis() < deadline);
+        return metrics;
+    }
+
+    private static String createACode() {
+        return """
+                    {
+                        "pin0": "RED",
+                        "pin1": "GREEN",
+                        "pin2": "BLUE",
+                        "pin3": "YELLOW"
+                    }
+                """;
+    }
+}
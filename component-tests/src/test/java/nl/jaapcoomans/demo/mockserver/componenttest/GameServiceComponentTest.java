@@ -12,6 +12,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockserver.Version;
 import org.mockserver.client.MockServerClient;
+import org.mockserver.model.HttpRequest;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.MockServerContainer;
@@ -60,6 +61,10 @@ class GameServiceComponentTest {
                     .withEnv("GENERATOR_URL", "http://generator:1080")
                     .withEnv("CHECKER_URL", "http://checker:1080")
                     .withEnv("TOURNAMENT_SVC_URL", "http://tournament-svc:1080")
+                    // The checker mock answers the same guess differently per test, so its results must not be cached
+                    .withEnv("CODE_CHECKER_CACHE_SIZE", "0")
+                    // Every test primes the generator mock with its own code, which must not be fetched in advance
+                    .withEnv("CODE_PREFETCH_HIGH_WATERMARK", "0")
                     .withNetwork(network)
                     .withExposedPorts(8080);
 
@@ -225,7 +230,7 @@ class GameServiceComponentTest {
 
     @Test
     @DisplayName("When a game is won, the tournament-service is called")
-    void testGameWonCallsTournamentService() throws JSONException {
+    void testGameWonCallsTournamentService() throws JSONException, InterruptedException {
         // Given
         var code = createACode();
         var game = prepareAGame(code);
@@ -251,13 +256,10 @@ class GameServiceComponentTest {
         // When
         var response = gameServiceRequest(code).post("/games/" + game.getId() + "/guess");
 
-        // Then a call must be made to the tournament service
+        // Then a call must be made to the tournament service, which happens in the background
         response.then().statusCode(200);
 
-        var actualRequests = tournamentMock.retrieveRecordedRequests(
-                request()
-                        .withMethod("PUT")
-                        .withPath("/games/.*/result"));
+        var actualRequests = awaitTournamentRequests();
 
         assertThat(actualRequests.length).isEqualTo(1);
 
@@ -267,6 +269,21 @@ class GameServiceComponentTest {
         assertEquals(expectedBody, actualBody, JSONCompareMode.LENIENT);
     }
 
+    private static HttpRequest[] awaitTournamentRequests() throws InterruptedException {
+        var deadline = System.currentTimeMillis() + 5000;
+        HttpRequest[] requests;
+        do {
+            requests = tournamentMock.retrieveRecordedRequests(
+                    request()
+                            .withMethod("PUT")
+                            .withPath("/games/.*/result"));
+            if (requests.length == 0) {
+                Thread.sleep(50);
+            }
+        } while (requests.length == 0 && System.currentTimeMillis() < deadline);
+        return requests;
+    }
+
     private Game prepareAGame() {
         String code = createACode();
 
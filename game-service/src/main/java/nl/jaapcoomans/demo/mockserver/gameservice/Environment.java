@@ -0,0 +1,44 @@
+package nl.jaapcoomans.demo.mockserver.gameservice;
+
+import java.time.Duration;
+
+public final class Environment {
+    private Environment() {
+    }
+
+    public static String getOrDefault(String variable, String defaultValue) {
+        var value = System.getenv(variable);
+        if (value != null) {
+            return value;
+        } else {
+            return defaultValue;
+        }
+    }
+
+    public static int getIntOrDefault(String variable, int defaultValue) {
+        var value = System.getenv(variable);
+        if (value != null) {
+            return Integer.parseInt(value.trim());
+        } else {
+            return defaultValue;
+        }
+    }
+
+    public static Duration getMillisOrDefault(String variable, Duration defaultValue) {
+        var value = System.getenv(variable);
+        if (value != null) {
+            return Duration.ofMillis(Long.parseLong(value.trim()));
+        } else {
+            return defaultValue;
+        }
+    }
+
+    public static Duration getSecondsOrDefault(String variable, Duration defaultValue) {
+        var value = System.getenv(variable);
+        if (value != null) {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } else {
+            return defaultValue;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package nl.jaapcoomans.demo.mockserver.gameservice;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -7,14 +8,64 @@ import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 import io.javalin.http.ExceptionHandler;
+import io.javalin.http.Handler;
+import io.javalin.plugin.json.FromJsonMapper;
+import io.javalin.plugin.json.JavalinJson;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeGenerator;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameRepository;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameService;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.IllegalGameSateException;
+import nl.jaapcoomans.demo.mockserver.gameservice.engine.CachingCodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.engine.FallbackCodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.engine.HedgingCodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.engine.LocalCodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.engine.PrefetchingCodeGenerator;
+import nl.jaapcoomans.demo.mockserver.gameservice.events.GameEventBroadcaster;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormats;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.JsonCodecs;
+import nl.jaapcoomans.demo.mockserver.gameservice.metrics.Metrics;
+import nl.jaapcoomans.demo.mockserver.gameservice.outbox.TournamentOutbox;
+import nl.jaapcoomans.demo.mockserver.gameservice.persist.CompactGameRepository;
+import nl.jaapcoomans.demo.mockserver.gameservice.persist.GameRetention;
 import nl.jaapcoomans.demo.mockserver.gameservice.persist.InMemoryGameRepository;
+import nl.jaapcoomans.demo.mockserver.gameservice.persist.JournalSettings;
+import nl.jaapcoomans.demo.mockserver.gameservice.persist.JournalingGameRepository;
+import nl.jaapcoomans.demo.mockserver.gameservice.persist.TieredGameRepository;
+import nl.jaapcoomans.demo.mockserver.gameservice.remote.LoadBalancingAsyncClient;
 import nl.jaapcoomans.demo.mockserver.gameservice.remote.RemoteServiceClientFactory;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.CircuitBreaker;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.Deadline;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.GuardedCodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.GuardedCodeGenerator;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.GuardedTournamentService;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.RemoteGuard;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.ServiceUnavailableException;
+import nl.jaapcoomans.demo.mockserver.gameservice.restapi.ContentNegotiation;
 import nl.jaapcoomans.demo.mockserver.gameservice.restapi.ErrorDTO;
+import nl.jaapcoomans.demo.mockserver.gameservice.restapi.GameDTO;
+import nl.jaapcoomans.demo.mockserver.gameservice.restapi.GameDTOWriter;
+import nl.jaapcoomans.demo.mockserver.gameservice.restapi.GameEventsApi;
 import nl.jaapcoomans.demo.mockserver.gameservice.restapi.GameServiceApi;
+import nl.jaapcoomans.demo.mockserver.gameservice.restapi.MetricsApi;
+import org.eclipse.jetty.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 import static io.javalin.apibuilder.ApiBuilder.get;
 import static io.javalin.apibuilder.ApiBuilder.path;
@@ -22,38 +73,461 @@ import static io.javalin.apibuilder.ApiBuilder.post;
 
 
 public class GameServiceApplication {
+    private static final Logger LOG = LoggerFactory.getLogger(GameServiceApplication.class);
+
     private static final int PORT = 8080;
+    private static final Duration MIN_REQUEST_DEADLINE = Duration.ofMillis(100);
+
+    private static final String ENV_REQUEST_THREADS = "REQUEST_THREADS";
+    private static final String ENV_API_BINARY_FORMATS = "API_BINARY_FORMATS";
+    private static final String ENV_REQUEST_DEADLINE = "REQUEST_DEADLINE_MILLIS";
+    private static final String ENV_GENERATOR = "GENERATOR";
+    private static final String ENV_CHECKER = "CHECKER";
+    private static final String ENV_TOURNAMENT_SVC = "TOURNAMENT_SVC";
+    private static final String ENV_BREAKER_FAILURES = "_BREAKER_FAILURES";
+    private static final String ENV_BREAKER_OPEN = "_BREAKER_OPEN_MILLIS";
+    private static final String ENV_BREAKER_PROBES = "_BREAKER_PROBES";
+    private static final String ENV_BULKHEAD_SIZE = "_BULKHEAD_SIZE";
+    private static final String ENV_CODE_CHECKER = "CODE_CHECKER";
+    private static final String ENV_CODE_CHECKER_HEDGE_PERCENTILE = "CODE_CHECKER_HEDGE_PERCENTILE";
+    private static final String ENV_CODE_CHECKER_HEDGE_MIN_DELAY = "CODE_CHECKER_HEDGE_MIN_DELAY_MILLIS";
+    private static final String ENV_CODE_CHECKER_CACHE_SIZE = "CODE_CHECKER_CACHE_SIZE";
+    private static final String ENV_CODE_CHECKER_CACHE_POLICY = "CODE_CHECKER_CACHE_POLICY";
+    private static final String ENV_CODE_PREFETCH_LOW_WATERMARK = "CODE_PREFETCH_LOW_WATERMARK";
+    private static final String ENV_CODE_PREFETCH_HIGH_WATERMARK = "CODE_PREFETCH_HIGH_WATERMARK";
+    private static final String ENV_OUTBOX_DIR = "TOURNAMENT_OUTBOX_DIR";
+    private static final String ENV_OUTBOX_CAPACITY = "TOURNAMENT_OUTBOX_CAPACITY";
+    private static final String ENV_OUTBOX_BATCH_SIZE = "TOURNAMENT_OUTBOX_BATCH_SIZE";
+    private static final String ENV_EVENTS_QUEUE_CAPACITY = "EVENTS_QUEUE_CAPACITY";
+    private static final String ENV_EVENTS_SENDER_THREADS = "EVENTS_SENDER_THREADS";
+    private static final String ENV_EVENTS_SEND_TIMEOUT = "EVENTS_SEND_TIMEOUT_MILLIS";
+    private static final String ENV_CONTINUATION_THREADS = "CONTINUATION_THREADS";
+    private static final String ENV_GAME_REPOSITORY = "GAME_REPOSITORY";
+    private static final String ENV_FINISHED_GAME_TTL = "FINISHED_GAME_TTL_SECONDS";
+    private static final String ENV_IDLE_GAME_TIMEOUT = "IDLE_GAME_TIMEOUT_SECONDS";
+
+    private static final String ENV_JOURNAL_DIR = "GAME_JOURNAL_DIR";
+    private static final String ENV_JOURNAL_SEGMENT_MB = "GAME_JOURNAL_SEGMENT_MB";
+    private static final String ENV_JOURNAL_GROUP_COMMIT = "GAME_JOURNAL_GROUP_COMMIT_MILLIS";
+    private static final String ENV_SNAPSHOT_INTERVAL = "GAME_SNAPSHOT_INTERVAL_SECONDS";
+    private static final String ENV_COLD_STORE_DIR = "GAME_COLD_STORE_DIR";
+    private static final String ENV_SPILL_IDLE_GAME = "GAME_SPILL_IDLE_SECONDS";
+
+    private static final String DEFAULT_REQUEST_THREADS = "platform";
+    private static final String DEFAULT_API_BINARY_FORMATS = "smile,cbor";
+    private static final Duration DEFAULT_REQUEST_DEADLINE = Duration.ofSeconds(10);
+    private static final int DEFAULT_BREAKER_FAILURES = 5;
+    private static final Duration DEFAULT_BREAKER_OPEN = Duration.ofSeconds(5);
+    private static final int DEFAULT_BREAKER_PROBES = 1;
+    private static final int DEFAULT_BULKHEAD_SIZE = 64;
+    private static final String DEFAULT_CODE_CHECKER = "remote";
+    private static final int DEFAULT_CODE_CHECKER_HEDGE_PERCENTILE = 0;
+    private static final Duration DEFAULT_CODE_CHECKER_HEDGE_MIN_DELAY = Duration.ofMillis(5);
+    private static final int DEFAULT_CODE_CHECKER_CACHE_SIZE = 65536;
+    private static final String DEFAULT_CODE_CHECKER_CACHE_POLICY = "lru";
+    private static final int DEFAULT_CODE_PREFETCH_LOW_WATERMARK = 16;
+    private static final int DEFAULT_CODE_PREFETCH_HIGH_WATERMARK = 64;
+    private static final String DEFAULT_OUTBOX_DIR = "outbox";
+    private static final int DEFAULT_OUTBOX_CAPACITY = 10000;
+    private static final int DEFAULT_OUTBOX_BATCH_SIZE = 100;
+    private static final int DEFAULT_EVENTS_QUEUE_CAPACITY = 256;
+    private static final int DEFAULT_EVENTS_SENDER_THREADS = 4;
+    private static final Duration DEFAULT_EVENTS_SEND_TIMEOUT = Duration.ofSeconds(5);
+    private static final int DEFAULT_CONTINUATION_THREADS = 8;
+    private static final String DEFAULT_GAME_REPOSITORY = "memory";
+    private static final Duration DEFAULT_FINISHED_GAME_TTL = Duration.ofHours(1);
+    private static final Duration DEFAULT_IDLE_GAME_TIMEOUT = Duration.ofHours(24);
+    private static final String DEFAULT_JOURNAL_DIR = "journal";
+    private static final int DEFAULT_JOURNAL_SEGMENT_MB = 64;
+    private static final Duration DEFAULT_JOURNAL_GROUP_COMMIT = Duration.ofMillis(1);
+    private static final Duration DEFAULT_SNAPSHOT_INTERVAL = Duration.ofMinutes(5);
+    private static final String DEFAULT_COLD_STORE_DIR = "cold-games";
+    private static final Duration DEFAULT_SPILL_IDLE_GAME = Duration.ofMinutes(5);
 
     public static void main(String[] arg) {
-        var objectMapper = objectMapper();
+        var formats = new DataFormats(GameServiceApplication::objectMapper).registerWriter(GameDTO.class, new GameDTOWriter());
+        var metrics = new Metrics();
+        var virtualThreads = useVirtualThreads();
 
-        var remoteClientFactory = new RemoteServiceClientFactory(objectMapper);
+        var remoteClientFactory = virtualThreads
+                ? new RemoteServiceClientFactory(formats, VirtualThreads.newThreadPerTaskExecutor("remote-call"))
+                : new RemoteServiceClientFactory(formats);
+        registerInstanceMetrics("generator", remoteClientFactory.getCodeGeneratorInstances(), metrics);
+        registerInstanceMetrics("checker", remoteClientFactory.getCodeCheckerInstances(), metrics);
+        registerInstanceMetrics("tournament", remoteClientFactory.getTournamentServiceInstances(), metrics);
 
-        var codeGenerator = remoteClientFactory.createCodeGeneratorClient();
-        var codeChecker = remoteClientFactory.createCodeCheckerClient();
-        var tournamentService = remoteClientFactory.createTournamentServiceClient();
+        var codeGenerator = codeGenerator(remoteClientFactory, metrics);
+        var codeChecker = codeChecker(remoteClientFactory, metrics);
+        var tournamentService = tournamentOutbox(remoteClientFactory, metrics);
 
-        var repository = new InMemoryGameRepository();
-        var gameService = new GameService(repository, codeGenerator, codeChecker, tournamentService);
-        var api = new GameServiceApi(gameService);
+        var repository = gameRepository(metrics);
+        var broadcaster = gameEventBroadcaster(virtualThreads, metrics);
+        var gameService = new GameService(repository, codeGenerator, codeChecker, tournamentService, broadcaster,
+                continuations(virtualThreads));
+        var api = new GameServiceApi(gameService, new ContentNegotiation(formats, binaryFormats()), virtualThreads);
+        var eventsApi = new GameEventsApi(gameService, broadcaster, formats.json());
+        useJsonCodecs(formats.json());
+        var metricsApi = new MetricsApi(metrics);
+        var requestDeadline = Environment.getMillisOrDefault(ENV_REQUEST_DEADLINE, DEFAULT_REQUEST_DEADLINE);
 
-        Javalin.create()
+        Javalin.create(config -> {
+                    if (virtualThreads) {
+                        config.server(() -> new Server(new VirtualThreadPool()));
+                    }
+                })
                 .routes(() -> {
                     path("/games", () -> {
-                        post(api::createNewGame);
+                        post(withDeadline(api::createNewGame, requestDeadline));
+                        post("/batch", withDeadline(api::createNewGames, requestDeadline));
+                        post("/guesses", withDeadline(api::guessCodes, requestDeadline));
                         get(api::listAllGames);
+                        get("/events", eventsApi::allGameEvents);
                         get("/:id", api::findById);
+                        get("/:id/events", eventsApi::gameEvents);
                         get("/:id/solution", api::getSolution);
-                        post("/:id/guess", api::guessCode);
+                        post("/:id/guess", withDeadline(api::guessCode, requestDeadline));
                     });
+                    get("/metrics", metricsApi::getMetrics);
                 })
                 .exception(RuntimeException.class, new ExceptionMapper<>(HttpURLConnection.HTTP_BAD_REQUEST))
                 .exception(IllegalGameSateException.class, new ExceptionMapper<>(HttpURLConnection.HTTP_BAD_REQUEST))
+                .exception(ServiceUnavailableException.class, new ExceptionMapper<>(HttpURLConnection.HTTP_UNAVAILABLE))
                 .start(PORT);
     }
 
-    private static ObjectMapper objectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
+    // Falls back to platform threads on a JVM without virtual threads.
+    private static boolean useVirtualThreads() {
+        var type = Environment.getOrDefault(ENV_REQUEST_THREADS, DEFAULT_REQUEST_THREADS);
+        switch (type) {
+            case "platform":
+                return false;
+            case "virtual":
+                if (VirtualThreads.isSupported()) {
+                    return true;
+                }
+                LOG.warn("Virtual threads are not available on Java {}, using platform threads", Runtime.version());
+                return false;
+            default:
+                throw new IllegalArgumentException("Unknown request threads: " + type);
+        }
+    }
+
+    // Runs the rest of a request once a remote has answered, so the threads of the HTTP client never block.
+    private static Supplier<Executor> continuations(boolean virtualThreads) {
+        ExecutorService executor;
+        if (virtualThreads) {
+            executor = VirtualThreads.newThreadPerTaskExecutor("continuation");
+        } else {
+            executor = Executors.newFixedThreadPool(
+                    Environment.getIntOrDefault(ENV_CONTINUATION_THREADS, DEFAULT_CONTINUATION_THREADS), runnable -> {
+                        var thread = new Thread(runnable, "continuation");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return () -> Deadline.carriedTo(executor);
+    }
+
+    private static GameEventBroadcaster gameEventBroadcaster(boolean virtualThreads, Metrics metrics) {
+        ExecutorService senders;
+        if (virtualThreads) {
+            senders = VirtualThreads.newThreadPerTaskExecutor("event-sender");
+        } else {
+            senders = Executors.newFixedThreadPool(
+                    Environment.getIntOrDefault(ENV_EVENTS_SENDER_THREADS, DEFAULT_EVENTS_SENDER_THREADS), runnable -> {
+                        var thread = new Thread(runnable, "event-sender");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        var broadcaster = new GameEventBroadcaster(
+                Environment.getIntOrDefault(ENV_EVENTS_QUEUE_CAPACITY, DEFAULT_EVENTS_QUEUE_CAPACITY),
+                Environment.getMillisOrDefault(ENV_EVENTS_SEND_TIMEOUT, DEFAULT_EVENTS_SEND_TIMEOUT), senders);
+
+        metrics.register("events.subscribers", broadcaster::getSubscribers);
+        metrics.register("events.published", broadcaster::getPublishedEvents);
+        metrics.register("events.sent", broadcaster::getSentEvents);
+        metrics.register("events.disconnected.slow", broadcaster::getSlowSubscribers);
+        metrics.register("events.disconnected.stuck", broadcaster::getStuckSubscribers);
+        return broadcaster;
+    }
+
+    private static Handler withDeadline(Handler handler, Duration maximum) {
+        return requestContext -> {
+            var timeout = requestTimeout(requestContext.header(Deadline.TIMEOUT_HEADER), maximum);
+            try (var ignored = Deadline.after(timeout).enter()) {
+                handler.handle(requestContext);
+            }
+        };
+    }
+
+    private static Duration requestTimeout(String requested, Duration maximum) {
+        if (requested == null) {
+            return maximum;
+        }
+        long millis;
+        try {
+            millis = Long.parseLong(requested.strip());
+        } catch (NumberFormatException e) {
+            millis = -1;
+        }
+        if (millis < 0) {
+            throw new IllegalArgumentException(Deadline.TIMEOUT_HEADER + " must be a number of milliseconds, not " + requested);
+        }
+        var timeout = Duration.ofMillis(millis);
+        if (timeout.compareTo(MIN_REQUEST_DEADLINE) < 0) {
+            return MIN_REQUEST_DEADLINE.compareTo(maximum) < 0 ? MIN_REQUEST_DEADLINE : maximum;
+        }
+        return timeout.compareTo(maximum) < 0 ? timeout : maximum;
+    }
+
+    private static RemoteGuard remoteGuard(String prefix, String name, String metricPrefix, Metrics metrics) {
+        var breaker = new CircuitBreaker(
+                Environment.getIntOrDefault(prefix + ENV_BREAKER_FAILURES, DEFAULT_BREAKER_FAILURES),
+                Environment.getMillisOrDefault(prefix + ENV_BREAKER_OPEN, DEFAULT_BREAKER_OPEN),
+                Environment.getIntOrDefault(prefix + ENV_BREAKER_PROBES, DEFAULT_BREAKER_PROBES));
+        var guard = new RemoteGuard(name, breaker, Environment.getIntOrDefault(prefix + ENV_BULKHEAD_SIZE, DEFAULT_BULKHEAD_SIZE));
+
+        metrics.register(metricPrefix + ".breaker.state", () -> breaker.getState().ordinal());
+        metrics.register(metricPrefix + ".breaker.opened", () -> breaker.getTransitionsTo(CircuitBreaker.State.OPEN));
+        metrics.register(metricPrefix + ".breaker.half.opened", () -> breaker.getTransitionsTo(CircuitBreaker.State.HALF_OPEN));
+        metrics.register(metricPrefix + ".breaker.closed", () -> breaker.getTransitionsTo(CircuitBreaker.State.CLOSED));
+        metrics.register(metricPrefix + ".calls.in.flight", guard::getCallsInFlight);
+        metrics.register(metricPrefix + ".latency.p50.micros", () -> guard.getLatencies().percentile(0.5).toNanos() / 1000);
+        metrics.register(metricPrefix + ".latency.p90.micros", () -> guard.getLatencies().percentile(0.9).toNanos() / 1000);
+        metrics.register(metricPrefix + ".latency.p99.micros", () -> guard.getLatencies().percentile(0.99).toNanos() / 1000);
+        metrics.register(metricPrefix + ".failures", guard::getFailures);
+        metrics.register(metricPrefix + ".rejected.deadline", guard::getDeadlineRejections);
+        metrics.register(metricPrefix + ".timed.out.deadline", guard::getDeadlineTimeouts);
+        metrics.register(metricPrefix + ".rejected.bulkhead", guard::getBulkheadRejections);
+        metrics.register(metricPrefix + ".rejected.breaker", guard::getBreakerRejections);
+
+        return guard;
+    }
+
+    private static void registerInstanceMetrics(String metricPrefix, LoadBalancingAsyncClient instances, Metrics metrics) {
+        metrics.register(metricPrefix + ".instances", instances::getEndpoints);
+        metrics.register(metricPrefix + ".instances.healthy", instances::getHealthyEndpoints);
+        metrics.register(metricPrefix + ".instances.ejected", instances::getEjections);
+        metrics.register(metricPrefix + ".instances.readmitted", instances::getReadmissions);
+    }
+
+    private static CodeGenerator codeGenerator(RemoteServiceClientFactory remoteClientFactory, Metrics metrics) {
+        var remote = new GuardedCodeGenerator(remoteClientFactory.createCodeGeneratorClient(),
+                remoteGuard(ENV_GENERATOR, "code generator", "generator", metrics));
+        var highWatermark = Environment.getIntOrDefault(ENV_CODE_PREFETCH_HIGH_WATERMARK, DEFAULT_CODE_PREFETCH_HIGH_WATERMARK);
+        if (highWatermark == 0) {
+            return remote;
+        }
+        var lowWatermark = Environment.getIntOrDefault(ENV_CODE_PREFETCH_LOW_WATERMARK, DEFAULT_CODE_PREFETCH_LOW_WATERMARK);
+        var generator = new PrefetchingCodeGenerator(remote, lowWatermark, highWatermark);
+
+        metrics.register("generator.buffer.size", generator::getBufferedCodes);
+        metrics.register("generator.refills", generator::getRefills);
+        metrics.register("generator.refilled.codes", generator::getRefilledCodes);
+        metrics.register("generator.refill.failures", generator::getRefillFailures);
+        metrics.register("generator.underruns", generator::getUnderruns);
+
+        return generator;
+    }
+
+    private static CodeChecker codeChecker(RemoteServiceClientFactory remoteClientFactory, Metrics metrics) {
+        var type = Environment.getOrDefault(ENV_CODE_CHECKER, DEFAULT_CODE_CHECKER);
+        switch (type) {
+            case "remote":
+                return cachingCodeChecker(remoteCodeChecker(remoteClientFactory, metrics), metrics);
+            case "local":
+                return new LocalCodeChecker();
+            case "fallback":
+                var checker = new FallbackCodeChecker(remoteCodeChecker(remoteClientFactory, metrics), new LocalCodeChecker());
+                metrics.register("checker.fallbacks", checker::getFallbacks);
+                return cachingCodeChecker(checker, metrics);
+            default:
+                throw new IllegalArgumentException("Unknown code checker: " + type);
+        }
+    }
+
+    private static CodeChecker remoteCodeChecker(RemoteServiceClientFactory remoteClientFactory, Metrics metrics) {
+        var guard = remoteGuard(ENV_CHECKER, "code checker", "checker", metrics);
+        var checker = new GuardedCodeChecker(remoteClientFactory.createCodeCheckerClient(), guard);
+
+        var percentile = Environment.getIntOrDefault(ENV_CODE_CHECKER_HEDGE_PERCENTILE, DEFAULT_CODE_CHECKER_HEDGE_PERCENTILE);
+        if (percentile == 0) {
+            return checker;
+        }
+        var hedging = new HedgingCodeChecker(checker, guard.getLatencies(), percentile / 100.0,
+                Environment.getMillisOrDefault(ENV_CODE_CHECKER_HEDGE_MIN_DELAY, DEFAULT_CODE_CHECKER_HEDGE_MIN_DELAY));
+
+        metrics.register("checker.hedges", hedging::getHedges);
+        metrics.register("checker.hedge.wins", hedging::getHedgeWins);
+
+        return hedging;
+    }
+
+    private static CodeChecker cachingCodeChecker(CodeChecker codeChecker, Metrics metrics) {
+        var size = Environment.getIntOrDefault(ENV_CODE_CHECKER_CACHE_SIZE, DEFAULT_CODE_CHECKER_CACHE_SIZE);
+        if (size == 0) {
+            return codeChecker;
+        }
+        var policy = Environment.getOrDefault(ENV_CODE_CHECKER_CACHE_POLICY, DEFAULT_CODE_CHECKER_CACHE_POLICY);
+        var cache = new CachingCodeChecker(codeChecker, size, CachingCodeChecker.EvictionPolicy.valueOf(policy.toUpperCase()));
+
+        metrics.register("checker.cache.hits", cache::getHits);
+        metrics.register("checker.cache.misses", cache::getMisses);
+        metrics.register("checker.cache.size", cache::size);
+
+        return cache;
+    }
+
+    private static TournamentOutbox tournamentOutbox(RemoteServiceClientFactory remoteClientFactory, Metrics metrics) {
+        TournamentOutbox outbox;
+        try {
+            var remote = new GuardedTournamentService(remoteClientFactory.createTournamentServiceClient(),
+                    remoteGuard(ENV_TOURNAMENT_SVC, "tournament service", "tournament", metrics));
+            outbox = new TournamentOutbox(
+                    remote,
+                    Path.of(Environment.getOrDefault(ENV_OUTBOX_DIR, DEFAULT_OUTBOX_DIR)),
+                    Environment.getIntOrDefault(ENV_OUTBOX_CAPACITY, DEFAULT_OUTBOX_CAPACITY),
+                    Environment.getIntOrDefault(ENV_OUTBOX_BATCH_SIZE, DEFAULT_OUTBOX_BATCH_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open the tournament outbox", e);
+        }
+        closeOnShutdown(outbox);
+
+        metrics.register("outbox.queued", outbox::getQueuedResults);
+        metrics.register("outbox.spilled", outbox::getSpilledResults);
+        metrics.register("outbox.sent", outbox::getSentResults);
+        metrics.register("outbox.failed.sends", outbox::getFailedSends);
+        metrics.register("outbox.overflows", outbox::getOverflows);
+        metrics.register("outbox.dropped", outbox::getDroppedResults);
+
+        return outbox;
+    }
+
+    private static GameRepository gameRepository(Metrics metrics) {
+        var repository = createGameRepository(metrics);
+        for (GameStatus status : GameStatus.values()) {
+            metrics.register("games.status." + status.name().toLowerCase(), () -> repository.countByStatus(status));
+        }
+        return repository;
+    }
+
+    private static GameRepository createGameRepository(Metrics metrics) {
+        var type = Environment.getOrDefault(ENV_GAME_REPOSITORY, DEFAULT_GAME_REPOSITORY);
+        switch (type) {
+            case "memory":
+                return inMemoryGameRepository(metrics);
+            case "journal":
+                return journalingGameRepository(metrics);
+            case "compact":
+                return compactGameRepository(metrics);
+            case "tiered":
+                return tieredGameRepository(metrics);
+            default:
+                throw new IllegalArgumentException("Unknown game repository: " + type);
+        }
+    }
+
+    private static InMemoryGameRepository inMemoryGameRepository(Metrics metrics) {
+        var retention = new GameRetention(
+                Environment.getSecondsOrDefault(ENV_FINISHED_GAME_TTL, DEFAULT_FINISHED_GAME_TTL),
+                Environment.getSecondsOrDefault(ENV_IDLE_GAME_TIMEOUT, DEFAULT_IDLE_GAME_TIMEOUT));
+        var repository = new InMemoryGameRepository(retention);
+
+        metrics.register("games.stored", repository::size);
+        metrics.register("games.evicted.finished", repository::getEvictedFinishedGames);
+        metrics.register("games.evicted.idle", repository::getEvictedIdleGames);
+
+        return repository;
+    }
+
+    private static JournalingGameRepository journalingGameRepository(Metrics metrics) {
+        var settings = new JournalSettings(
+                Path.of(Environment.getOrDefault(ENV_JOURNAL_DIR, DEFAULT_JOURNAL_DIR)),
+                Environment.getIntOrDefault(ENV_JOURNAL_SEGMENT_MB, DEFAULT_JOURNAL_SEGMENT_MB) * 1024 * 1024,
+                Environment.getMillisOrDefault(ENV_JOURNAL_GROUP_COMMIT, DEFAULT_JOURNAL_GROUP_COMMIT),
+                Environment.getSecondsOrDefault(ENV_SNAPSHOT_INTERVAL, DEFAULT_SNAPSHOT_INTERVAL));
+
+        JournalingGameRepository repository;
+        try {
+            repository = JournalingGameRepository.open(settings);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to recover the games from the journal", e);
+        }
+        closeOnShutdown(repository);
+
+        metrics.register("games.stored", repository::size);
+        metrics.register("journal.records.appended", repository::getAppendedRecords);
+        metrics.register("journal.fsyncs", repository::getFsyncs);
+        metrics.register("journal.snapshots.written", repository::getSnapshotsWritten);
+        metrics.register("journal.recovery.millis", repository::getRecoveryMillis);
+
+        return repository;
+    }
+
+    private static CompactGameRepository compactGameRepository(Metrics metrics) {
+        var repository = new CompactGameRepository();
+
+        metrics.register("games.stored", repository::size);
+        metrics.register("games.store.bytes", repository::getAllocatedBytes);
+
+        return repository;
+    }
+
+    private static TieredGameRepository tieredGameRepository(Metrics metrics) {
+        TieredGameRepository repository;
+        try {
+            repository = new TieredGameRepository(
+                    Path.of(Environment.getOrDefault(ENV_COLD_STORE_DIR, DEFAULT_COLD_STORE_DIR)),
+                    Environment.getSecondsOrDefault(ENV_SPILL_IDLE_GAME, DEFAULT_SPILL_IDLE_GAME));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create the cold game store", e);
+        }
+        closeOnShutdown(repository);
+
+        metrics.register("games.hot", repository::getHotGames);
+        metrics.register("games.cold", repository::getColdGames);
+        metrics.register("games.cold.bytes", repository::getColdStoreBytes);
+        metrics.register("games.spilled", repository::getSpilledGames);
+        metrics.register("games.faulted", repository::getFaultedGames);
+
+        return repository;
+    }
+
+    private static void closeOnShutdown(Closeable closeable) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                LOG.error("Failed to close {} on shutdown", closeable, e);
+            }
+        }));
+    }
+
+    // Javalin reads request bodies and writes responses through these mappers, including those completed by a future.
+    private static void useJsonCodecs(JsonCodecs codecs) {
+        JavalinJson.setToJsonMapper(codecs::toJson);
+        JavalinJson.setFromJsonMapper(new FromJsonMapper() {
+            @Override
+            public <T> T map(String json, Class<T> targetClass) {
+                return codecs.fromJson(json, targetClass);
+            }
+        });
+    }
+
+    // Only offered to clients that ask for them, JSON stays the default.
+    private static Set<DataFormat> binaryFormats() {
+        var formats = EnumSet.noneOf(DataFormat.class);
+        for (String name : Environment.getOrDefault(ENV_API_BINARY_FORMATS, DEFAULT_API_BINARY_FORMATS).split(",")) {
+            if (!name.isBlank()) {
+                formats.add(DataFormat.fromName(name));
+            }
+        }
+        return formats;
+    }
+
+    private static ObjectMapper objectMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.registerModule(new ParameterNamesModule());
         objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
@@ -0,0 +1,50 @@
+package nl.jaapcoomans.demo.mockserver.gameservice;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+    private final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("request");
+    private final AtomicInteger runningTasks = new AtomicInteger();
+
+    @Override
+    public void execute(Runnable task) {
+        this.executor.execute(() -> {
+            this.runningTasks.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                this.runningTasks.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int getThreads() {
+        return this.runningTasks.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    @Override
+    protected void doStop() {
+        this.executor.shutdown();
+    }
+}
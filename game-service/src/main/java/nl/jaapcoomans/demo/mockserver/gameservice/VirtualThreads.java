@@ -0,0 +1,61 @@
+package nl.jaapcoomans.demo.mockserver.gameservice;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Through reflection, so the service still builds and runs on a Java version without virtual threads.
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method NAME = findMethod("java.lang.Thread$Builder", "name", String.class, long.class);
+    private static final Method FACTORY = findMethod("java.lang.Thread$Builder", "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && NAME != null && FACTORY != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    public static ThreadFactory factory(String prefix) {
+        var builder = invoke(OF_VIRTUAL, null);
+        builder = invoke(NAME, builder, prefix + "-", 0L);
+        return (ThreadFactory) invoke(FACTORY, builder);
+    }
+
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        return (ExecutorService) invoke(NEW_THREAD_PER_TASK_EXECUTOR, null, factory(prefix));
+    }
+
+    private static Object invoke(Method method, Object target, Object... arguments) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or newer, this is Java " + Runtime.version());
+        }
+        try {
+            return method.invoke(target, arguments);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to create a virtual thread", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Unable to create a virtual thread", e.getCause());
+        }
+    }
+
+    private static Method findMethod(String className, String name, Class<?>... parameterTypes) {
+        try {
+            return findMethod(Class.forName(className), name, parameterTypes);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
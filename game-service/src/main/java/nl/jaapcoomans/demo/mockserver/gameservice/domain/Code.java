@@ -3,24 +3,76 @@ package nl.jaapcoomans.demo.mockserver.gameservice.domain;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.List;
-import java.util.Objects;
 import java.util.StringJoiner;
 
+// Only 4096 codes exist, of and fromPacked return canonical instances.
 public class Code {
-    private final List<ColoredPin> code;
+    private static final int PINS = 4;
+    private static final ColoredPin[] COLORS = ColoredPin.values();
+    private static final int PIN_MASK = (1 << CodeEncoding.BITS_PER_PIN) - 1;
+    private static final Code[] CODES = new Code[CodeEncoding.NUMBER_OF_CODES];
+
+    static {
+        for (int packed = 0; packed < CODES.length; packed++) {
+            CODES[packed] = new Code((short) packed);
+        }
+    }
+
+    private final short packed;
+
+    public Code(ColoredPin pin0, ColoredPin pin1, ColoredPin pin2, ColoredPin pin3) {
+        this(pack(pin0, pin1, pin2, pin3));
+    }
+
+    private Code(short packed) {
+        this.packed = packed;
+    }
 
     @JsonCreator
-    public Code(@JsonProperty("pin0") ColoredPin pin0, @JsonProperty("pin1") ColoredPin pin1, @JsonProperty("pin2") ColoredPin pin2, @JsonProperty("pin3") ColoredPin pin3) {
-        this.code = List.of(pin0, pin1, pin2, pin3);
+    public static Code of(@JsonProperty("pin0") ColoredPin pin0, @JsonProperty("pin1") ColoredPin pin1, @JsonProperty("pin2") ColoredPin pin2, @JsonProperty("pin3") ColoredPin pin3) {
+        return CODES[pack(pin0, pin1, pin2, pin3)];
+    }
+
+    public static Code fromPacked(int packed) {
+        return CODES[packed];
+    }
+
+    private static short pack(ColoredPin pin0, ColoredPin pin1, ColoredPin pin2, ColoredPin pin3) {
+        return (short) (pin0.ordinal()
+                | pin1.ordinal() << CodeEncoding.BITS_PER_PIN
+                | pin2.ordinal() << 2 * CodeEncoding.BITS_PER_PIN
+                | pin3.ordinal() << 3 * CodeEncoding.BITS_PER_PIN);
     }
 
     int numberOfPins() {
-        return this.code.size();
+        return PINS;
     }
 
     public ColoredPin getPin(int index) {
-        return this.code.get(index);
+        if (index < 0 || index >= PINS) {
+            throw new IndexOutOfBoundsException("A code has no pin " + index);
+        }
+        return COLORS[(this.packed >>> (index * CodeEncoding.BITS_PER_PIN)) & PIN_MASK];
+    }
+
+    public ColoredPin getPin0() {
+        return this.getPin(0);
+    }
+
+    public ColoredPin getPin1() {
+        return this.getPin(1);
+    }
+
+    public ColoredPin getPin2() {
+        return this.getPin(2);
+    }
+
+    public ColoredPin getPin3() {
+        return this.getPin(3);
+    }
+
+    int packed() {
+        return this.packed;
     }
 
     @Override
@@ -31,23 +83,20 @@ public class Code {
         if (obj.getClass() != Code.class) {
             return false;
         }
-        Code other = (Code) obj;
-        return Objects.equals(this.code, other.code);
+        return this.packed == ((Code) obj).packed;
     }
 
     @Override
     public int hashCode() {
-        return this.code.hashCode();
+        return this.packed;
     }
 
     @Override
     public String toString() {
         var joiner = new StringJoiner(", ", "[Code: ", "]");
-
-        this.code.stream()
-                .map(Objects::toString)
-                .forEach(joiner::add);
-
+        for (int i = 0; i < PINS; i++) {
+            joiner.add(this.getPin(i).toString());
+        }
         return joiner.toString();
     }
 }
@@ -1,5 +1,26 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.domain;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
 public interface CodeChecker {
     Result checkCode(Code code, Code guess);
+
+    default CompletableFuture<Result> checkCodeAsync(Code code, Code guess) {
+        return CompletableFuture.supplyAsync(() -> this.checkCode(code, guess), Runnable::run);
+    }
+
+    // Checks each guess against the code at the same position.
+    default CompletableFuture<List<Result>> checkCodesAsync(List<Code> codes, List<Code> guesses) {
+        var results = new ArrayList<CompletableFuture<Result>>(codes.size());
+        for (int i = 0; i < codes.size(); i++) {
+            results.add(this.checkCodeAsync(codes.get(i), guesses.get(i)));
+        }
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> results.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,18 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+// Three bits per pin, pin 0 in the lowest bits.
+public final class CodeEncoding {
+    public static final int BITS_PER_PIN = 3;
+    public static final int NUMBER_OF_CODES = 1 << (4 * BITS_PER_PIN);
+
+    private CodeEncoding() {
+    }
+
+    public static int pack(Code code) {
+        return code.packed();
+    }
+
+    public static Code unpack(int packed) {
+        return Code.fromPacked(packed);
+    }
+}
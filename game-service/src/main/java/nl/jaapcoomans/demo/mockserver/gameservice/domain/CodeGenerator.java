@@ -1,5 +1,25 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.domain;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface CodeGenerator {
     Code generateCode();
+
+    default List<Code> generateCodes(int count) {
+        var codes = new ArrayList<Code>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(this.generateCode());
+        }
+        return codes;
+    }
+
+    default CompletableFuture<Code> generateCodeAsync() {
+        return CompletableFuture.supplyAsync(this::generateCode, Runnable::run);
+    }
+
+    default CompletableFuture<List<Code>> generateCodesAsync(int count) {
+        return CompletableFuture.supplyAsync(() -> this.generateCodes(count), Runnable::run);
+    }
 }
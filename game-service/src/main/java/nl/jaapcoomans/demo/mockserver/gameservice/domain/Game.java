@@ -1,23 +1,38 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.domain;
 
-import java.util.ArrayList;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Game {
-    private static final int MAX_TURNS = 10;
+    public static final int MAX_TURNS = 10;
 
-    private final UUID id = UUID.randomUUID();
-    private final List<Turn> turns = new ArrayList<>();
+    private final UUID id;
+    private final List<Turn> turns = new CopyOnWriteArrayList<>();
 
     private final Code code;
 
-    private GameStatus status = GameStatus.IN_PROGRESS;
+    private volatile GameStatus status = GameStatus.IN_PROGRESS;
 
     Game(Code code) {
+        this(GameIds.next(), code);
+    }
+
+    private Game(UUID id, Code code) {
+        this.id = id;
         this.code = code;
     }
 
+    public static Game restore(UUID id, Code code, List<Turn> turns) {
+        var game = new Game(id, code);
+        for (Turn turn : turns) {
+            game.recordTurn(turn.getGuess(), turn.getResult());
+        }
+        return game;
+    }
+
     Code getCode() {
         if (this.status == GameStatus.IN_PROGRESS) {
             throw new IllegalGameSateException("I'm not telling the code! The game is still in progress!");
@@ -33,6 +48,16 @@ public class Game {
         return this.turns.size();
     }
 
+    @JsonIgnore
+    public Code getSecretCode() {
+        return this.code;
+    }
+
+    @JsonIgnore
+    public List<Turn> getTurns() {
+        return List.copyOf(this.turns);
+    }
+
     public UUID getId() {
         return id;
     }
@@ -42,11 +67,15 @@ public class Game {
     }
 
     Result guess(Code guess, CodeChecker codeChecker) {
-        if (this.isFinished()) {
-            throw new IllegalGameSateException("No more guessing, the game is already finished!");
-        }
+        this.ensureInProgress();
+
+        return this.recordTurn(guess, codeChecker.checkCode(code, guess));
+    }
+
+    // The guess was already checked against the code.
+    Result recordTurn(Code guess, Result result) {
+        this.ensureInProgress();
 
-        var result = codeChecker.checkCode(code, guess);
         if (result.getBlackPins() == this.code.numberOfPins()) {
             this.status = GameStatus.WON;
         }
@@ -58,4 +87,10 @@ public class Game {
 
         return result;
     }
+
+    void ensureInProgress() {
+        if (this.isFinished()) {
+            throw new IllegalGameSateException("No more guessing, the game is already finished!");
+        }
+    }
 }
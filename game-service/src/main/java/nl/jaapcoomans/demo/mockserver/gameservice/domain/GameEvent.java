@@ -0,0 +1,47 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+import java.util.UUID;
+
+public class GameEvent {
+    private final UUID gameId;
+    private final int turn;
+    private final Code guess;
+    private final Result result;
+    private final GameStatus status;
+
+    public GameEvent(UUID gameId, int turn, Code guess, Result result, GameStatus status) {
+        this.gameId = gameId;
+        this.turn = turn;
+        this.guess = guess;
+        this.result = result;
+        this.status = status;
+    }
+
+    static GameEvent turnPlayed(Game game, Code guess, Result result) {
+        return new GameEvent(game.getId(), game.getNumberOfGuesses(), guess, result, game.getStatus());
+    }
+
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public Code getGuess() {
+        return guess;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    public boolean isFinal() {
+        return this.status != GameStatus.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,9 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+// Called while the game is locked, so it must hand the event off rather than block.
+public interface GameEventListener {
+    GameEventListener NONE = event -> {
+    };
+
+    void onTurnPlayed(GameEvent event);
+}
@@ -0,0 +1,21 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+import java.util.UUID;
+
+public class GameGuess {
+    private final UUID gameId;
+    private final Code guess;
+
+    public GameGuess(UUID gameId, Code guess) {
+        this.gameId = gameId;
+        this.guess = guess;
+    }
+
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    public Code getGuess() {
+        return guess;
+    }
+}
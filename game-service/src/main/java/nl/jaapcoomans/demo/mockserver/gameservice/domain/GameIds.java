@@ -0,0 +1,54 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Version 7 UUIDs, sorted by creation time, with a sequence and random source per thread.
+public final class GameIds {
+    private static final int VERSION = 7;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private static final ThreadLocal<Sequence> SEQUENCE = ThreadLocal.withInitial(Sequence::new);
+
+    private GameIds() {
+    }
+
+    public static UUID next() {
+        return SEQUENCE.get().next(System.currentTimeMillis());
+    }
+
+    public static Instant createdAt(UUID id) {
+        if (id.version() != VERSION) {
+            throw new IllegalArgumentException("Not a time-ordered game id: " + id);
+        }
+        return Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+    }
+
+    // Sorts between the ids created before the time and those created at or after it.
+    static UUID lowerBound(Instant time) {
+        return new UUID(time.toEpochMilli() << 16, Long.MIN_VALUE);
+    }
+
+    private static class Sequence {
+        private long millis;
+        private int sequence;
+
+        // Starts in the lower half of the range, leaving room for at least 2048 ids per millisecond.
+        private UUID next(long now) {
+            if (now > this.millis) {
+                this.millis = now;
+                this.sequence = ThreadLocalRandom.current().nextInt(1 << (SEQUENCE_BITS - 1));
+            } else if (++this.sequence == 1 << SEQUENCE_BITS) {
+                this.millis++;
+                this.sequence = 0;
+            }
+
+            var mostSignificantBits = this.millis << 16 | VERSION << SEQUENCE_BITS | this.sequence;
+            var leastSignificantBits = VARIANT | ThreadLocalRandom.current().nextLong() & RANDOM_MASK;
+            return new UUID(mostSignificantBits, leastSignificantBits);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// A lock only exists while a thread holds or waits for it.
+class GameLocks {
+    private final ConcurrentMap<UUID, GameLock> locks = new ConcurrentHashMap<>();
+
+    GameLock acquire(UUID gameId) {
+        var lock = this.locks.compute(gameId, (id, existing) -> {
+            var gameLock = existing == null ? new GameLock(id) : existing;
+            gameLock.users++;
+            return gameLock;
+        });
+        lock.lock.lock();
+        return lock;
+    }
+
+    private void release(GameLock lock) {
+        lock.lock.unlock();
+        this.locks.computeIfPresent(lock.gameId, (id, existing) -> --existing.users == 0 ? null : existing);
+    }
+
+    int size() {
+        return this.locks.size();
+    }
+
+    class GameLock implements AutoCloseable {
+        private final UUID gameId;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Only modified inside the compute functions of the map, which serialize access per key.
+        private int users;
+
+        private GameLock(UUID gameId) {
+            this.gameId = gameId;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
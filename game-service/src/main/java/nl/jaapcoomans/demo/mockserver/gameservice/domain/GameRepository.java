@@ -1,5 +1,6 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.domain;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -9,5 +10,23 @@ public interface GameRepository {
 
     Game persist(Game game);
 
+    default void persistAll(List<Game> games) {
+        for (Game game : games) {
+            this.persist(game);
+        }
+    }
+
     List<Game> findAll();
+
+    // Pages are ordered by id.
+    List<Game> findPage(PageRequest page);
+
+    List<Game> findByStatus(GameStatus status, PageRequest page);
+
+    long countByStatus(GameStatus status);
+
+    // From inclusive, to exclusive.
+    default List<Game> findCreatedBetween(Instant from, Instant to, PageRequest page) {
+        return this.findPage(page.createdBetween(from, to));
+    }
 }
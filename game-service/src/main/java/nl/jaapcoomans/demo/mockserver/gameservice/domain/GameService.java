@@ -1,21 +1,50 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.domain;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class GameService {
+    public static final int MAX_BATCH_SIZE = 1000;
+
     private GameRepository gameRepository;
 
     private CodeGenerator codeGenerator;
     private CodeChecker codeChecker;
     private TournamentService tournamentService;
+    private GameEventListener eventListener;
+    private Supplier<Executor> continuations;
+
+    private final GameLocks gameLocks = new GameLocks();
 
     public GameService(GameRepository gameRepository, CodeGenerator codeGenerator, CodeChecker codeChecker, TournamentService tournamentService) {
+        this(gameRepository, codeGenerator, codeChecker, tournamentService, GameEventListener.NONE);
+    }
+
+    public GameService(GameRepository gameRepository, CodeGenerator codeGenerator, CodeChecker codeChecker,
+                       TournamentService tournamentService, GameEventListener eventListener) {
+        this(gameRepository, codeGenerator, codeChecker, tournamentService, eventListener, () -> Runnable::run);
+    }
+
+    // The continuations are asked for an executor on the request thread, so they can carry its context.
+    public GameService(GameRepository gameRepository, CodeGenerator codeGenerator, CodeChecker codeChecker,
+                       TournamentService tournamentService, GameEventListener eventListener,
+                       Supplier<Executor> continuations) {
         this.gameRepository = gameRepository;
         this.codeGenerator = codeGenerator;
         this.codeChecker = codeChecker;
         this.tournamentService = tournamentService;
+        this.eventListener = eventListener;
+        this.continuations = continuations;
     }
 
     public Game startNewGame() {
@@ -26,18 +55,205 @@ public class GameService {
         return game;
     }
 
+    public List<Game> startNewGames(int count) {
+        if (count < 1 || count > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("The number of games must be between 1 and " + MAX_BATCH_SIZE + ", not " + count);
+        }
+        var games = new ArrayList<Game>(count);
+        for (Code code : this.codeGenerator.generateCodes(count)) {
+            games.add(new Game(code));
+        }
+        this.gameRepository.persistAll(games);
+
+        return games;
+    }
+
     public Result guessCode(UUID gameId, Code guess) {
-        Game game = this.gameRepository.findById(gameId)
-                .orElseThrow(() -> new RuntimeException("Game does not exist"));
+        Game game;
+        Result result;
+        boolean finished;
+
+        // Guesses for the same game are applied one at a time, guesses for different games do not wait for each other.
+        try (var ignored = this.gameLocks.acquire(gameId)) {
+            game = this.gameRepository.findById(gameId)
+                    .orElseThrow(() -> new RuntimeException("Game does not exist"));
+
+            result = game.guess(guess, this.codeChecker);
+            this.gameRepository.persist(game);
+            finished = game.isFinished();
+            this.eventListener.onTurnPlayed(GameEvent.turnPlayed(game, guess, result));
+        }
 
-        var result = game.guess(guess, this.codeChecker);
-        if(game.isFinished()) {
+        // Only the guess that finished the game gets here with finished set, any later guess is rejected by the game.
+        if (finished) {
             this.tournamentService.gameEnded(game.getId(), game.getStatus(), game.getNumberOfGuesses());
         }
 
         return result;
     }
 
+    public CompletableFuture<Game> startNewGameAsync() {
+        return this.codeGenerator.generateCodeAsync().thenApplyAsync(code -> {
+            var game = new Game(code);
+            this.gameRepository.persist(game);
+            return game;
+        }, this.continuations.get());
+    }
+
+    public CompletableFuture<List<Game>> startNewGamesAsync(int count) {
+        if (count < 1 || count > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("The number of games must be between 1 and " + MAX_BATCH_SIZE + ", not " + count);
+        }
+        return this.codeGenerator.generateCodesAsync(count).thenApplyAsync(codes -> {
+            var games = new ArrayList<Game>(count);
+            for (Code code : codes) {
+                games.add(new Game(code));
+            }
+            this.gameRepository.persistAll(games);
+            return games;
+        }, this.continuations.get());
+    }
+
+    // Read again under the lock, so a guess overtaken by the one that finished the game is rejected.
+    public CompletableFuture<Result> guessCodeAsync(UUID gameId, Code guess) {
+        var game = this.gameRepository.findById(gameId)
+                .orElseThrow(() -> new RuntimeException("Game does not exist"));
+        game.ensureInProgress();
+
+        return this.codeChecker.checkCodeAsync(game.getSecretCode(), guess)
+                .thenComposeAsync(result -> this.recordTurn(gameId, guess, result), this.continuations.get());
+    }
+
+    private CompletableFuture<Result> recordTurn(UUID gameId, Code guess, Result result) {
+        Game game;
+        boolean finished;
+
+        try (var ignored = this.gameLocks.acquire(gameId)) {
+            game = this.gameRepository.findById(gameId)
+                    .orElseThrow(() -> new RuntimeException("Game does not exist"));
+
+            game.recordTurn(guess, result);
+            this.gameRepository.persist(game);
+            finished = game.isFinished();
+            this.eventListener.onTurnPlayed(GameEvent.turnPlayed(game, guess, result));
+        }
+
+        if (!finished) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return this.tournamentService.gameEndedAsync(game.getId(), game.getStatus(), game.getNumberOfGuesses())
+                .thenApply(ignored -> result);
+    }
+
+    // A guess after the one that finished its game fails, as does a guess for an unknown game.
+    public List<CompletableFuture<Result>> guessCodesAsync(List<GameGuess> guesses) {
+        if (guesses.isEmpty() || guesses.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("The number of guesses must be between 1 and " + MAX_BATCH_SIZE + ", not " + guesses.size());
+        }
+
+        var outcomes = new ArrayList<CompletableFuture<Result>>(guesses.size());
+        var checks = new ArrayList<PendingGuess>(guesses.size());
+        for (GameGuess guess : guesses) {
+            var outcome = new CompletableFuture<Result>();
+            outcomes.add(outcome);
+            try {
+                var game = this.gameRepository.findById(guess.getGameId())
+                        .orElseThrow(() -> new RuntimeException("Game does not exist"));
+                game.ensureInProgress();
+                checks.add(new PendingGuess(guess, game.getSecretCode(), outcome));
+            } catch (RuntimeException e) {
+                outcome.completeExceptionally(e);
+            }
+        }
+        if (checks.isEmpty()) {
+            return outcomes;
+        }
+
+        var codes = checks.stream().map(check -> check.code).collect(Collectors.toList());
+        var guessedCodes = checks.stream().map(check -> check.guess.getGuess()).collect(Collectors.toList());
+        this.codeChecker.checkCodesAsync(codes, guessedCodes).whenCompleteAsync((results, e) -> {
+            if (e == null) {
+                this.recordTurns(checks, results);
+            } else {
+                var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                checks.forEach(check -> check.outcome.completeExceptionally(cause));
+            }
+        }, this.continuations.get());
+        return outcomes;
+    }
+
+    private void recordTurns(List<PendingGuess> checks, List<Result> results) {
+        var guessesByGame = new TreeMap<UUID, List<Integer>>();
+        for (int i = 0; i < checks.size(); i++) {
+            guessesByGame.computeIfAbsent(checks.get(i).guess.getGameId(), id -> new ArrayList<>()).add(i);
+        }
+
+        var playedGuesses = new ArrayList<Integer>(checks.size());
+        var endedGames = new HashMap<Integer, Game>();
+        var locks = new ArrayList<GameLocks.GameLock>(guessesByGame.size());
+        try {
+            // Taken in the order of the game ids, so two batches for the same games cannot wait for each other.
+            for (UUID gameId : guessesByGame.keySet()) {
+                locks.add(this.gameLocks.acquire(gameId));
+            }
+
+            var changedGames = new ArrayList<Game>(guessesByGame.size());
+            var events = new ArrayList<GameEvent>(checks.size());
+            for (var gameGuesses : guessesByGame.entrySet()) {
+                var game = this.gameRepository.findById(gameGuesses.getKey());
+                var changed = false;
+                for (int index : gameGuesses.getValue()) {
+                    var check = checks.get(index);
+                    var result = results.get(index);
+                    try {
+                        game.orElseThrow(() -> new RuntimeException("Game does not exist"))
+                                .recordTurn(check.guess.getGuess(), result);
+                    } catch (RuntimeException e) {
+                        check.outcome.completeExceptionally(e);
+                        continue;
+                    }
+                    changed = true;
+                    playedGuesses.add(index);
+                    events.add(GameEvent.turnPlayed(game.get(), check.guess.getGuess(), result));
+                    if (game.get().isFinished()) {
+                        endedGames.put(index, game.get());
+                    }
+                }
+                if (changed) {
+                    changedGames.add(game.get());
+                }
+            }
+
+            this.gameRepository.persistAll(changedGames);
+            events.forEach(this.eventListener::onTurnPlayed);
+        } catch (RuntimeException e) {
+            checks.forEach(check -> check.outcome.completeExceptionally(e));
+            return;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).close();
+            }
+        }
+
+        for (int index : playedGuesses) {
+            var outcome = checks.get(index).outcome;
+            var result = results.get(index);
+            var game = endedGames.get(index);
+            if (game == null) {
+                outcome.complete(result);
+            } else {
+                this.tournamentService.gameEndedAsync(game.getId(), game.getStatus(), game.getNumberOfGuesses())
+                        .whenComplete((ignored, e) -> {
+                            if (e == null) {
+                                outcome.complete(result);
+                            } else {
+                                outcome.completeExceptionally(e);
+                            }
+                        });
+            }
+        }
+    }
+
     public Code getSolution(UUID gameId) {
         Game game = this.gameRepository.findById(gameId)
                 .orElseThrow(() -> new RuntimeException("Game does not exist"));
@@ -49,7 +265,35 @@ public class GameService {
         return this.gameRepository.findAll();
     }
 
+    public List<Game> findPage(PageRequest page) {
+        return this.gameRepository.findPage(page);
+    }
+
+    public List<Game> findByStatus(GameStatus status, PageRequest page) {
+        return this.gameRepository.findByStatus(status, page);
+    }
+
+    public List<Game> findCreatedBetween(Instant from, Instant to, PageRequest page) {
+        return this.gameRepository.findCreatedBetween(from, to, page);
+    }
+
+    public long countByStatus(GameStatus status) {
+        return this.gameRepository.countByStatus(status);
+    }
+
     public Optional<Game> findById(UUID id) {
         return gameRepository.findById(id);
     }
+
+    private static class PendingGuess {
+        private final GameGuess guess;
+        private final Code code;
+        private final CompletableFuture<Result> outcome;
+
+        private PendingGuess(GameGuess guess, Code code, CompletableFuture<Result> outcome) {
+            this.guess = guess;
+            this.code = code;
+            this.outcome = outcome;
+        }
+    }
 }
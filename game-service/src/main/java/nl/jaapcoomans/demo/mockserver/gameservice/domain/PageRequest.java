@@ -0,0 +1,62 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+// The id of the last game on a page is the cursor for the next one.
+public class PageRequest {
+    public static final int MAX_LIMIT = 1000;
+
+    private final UUID after;
+    private final UUID before;
+    private final int limit;
+
+    private PageRequest(UUID after, UUID before, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("The page limit must be between 1 and " + MAX_LIMIT + ", not " + limit);
+        }
+        this.after = after;
+        this.before = before;
+        this.limit = limit;
+    }
+
+    public static PageRequest first(int limit) {
+        return new PageRequest(null, null, limit);
+    }
+
+    public static PageRequest after(UUID after, int limit) {
+        return new PageRequest(after, null, limit);
+    }
+
+    public Optional<UUID> getAfter() {
+        return Optional.ofNullable(after);
+    }
+
+    public Optional<UUID> getBefore() {
+        return Optional.ofNullable(before);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean includes(UUID id) {
+        return (this.after == null || id.compareTo(this.after) > 0)
+                && (this.before == null || id.compareTo(this.before) < 0);
+    }
+
+    public PageRequest next(UUID lastId) {
+        return new PageRequest(lastId, this.before, this.limit);
+    }
+
+    // Game ids are ordered by creation time, so this is a range of ids.
+    public PageRequest createdBetween(Instant from, Instant to) {
+        var lower = GameIds.lowerBound(from);
+        var upper = GameIds.lowerBound(to);
+        return new PageRequest(
+                this.after == null || lower.compareTo(this.after) > 0 ? lower : this.after,
+                this.before == null || upper.compareTo(this.before) < 0 ? upper : this.before,
+                this.limit);
+    }
+}
@@ -1,7 +1,12 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.domain;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface TournamentService {
     void gameEnded(UUID gameId, GameStatus result, int guesses);
+
+    default CompletableFuture<Void> gameEndedAsync(UUID gameId, GameStatus result, int guesses) {
+        return CompletableFuture.runAsync(() -> this.gameEnded(gameId, result, guesses), Runnable::run);
+    }
 }
@@ -1,14 +1,22 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.domain;
 
-class Turn {
+public class Turn {
     private final Code guess;
     private final Result result;
 
-    Turn(Code guess, Result result) {
+    public Turn(Code guess, Result result) {
         this.guess = guess;
         this.result = result;
     }
 
+    public Code getGuess() {
+        return guess;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
     boolean isWinningTurn() {
         return this.guess.numberOfPins() == this.result.getBlackPins();
     }
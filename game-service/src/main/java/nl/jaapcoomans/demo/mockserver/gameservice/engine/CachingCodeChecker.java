@@ -0,0 +1,161 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+// Segmented by key, each segment a bounded LinkedHashMap behind its own lock.
+public class CachingCodeChecker implements CodeChecker {
+    private static final int SEGMENTS = 16;
+
+    public enum EvictionPolicy {
+        LRU,
+        // A hit does not reorder the segment, which makes it cheaper than LRU.
+        FIFO
+    }
+
+    private final CodeChecker delegate;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingCodeChecker(CodeChecker delegate, int maximumSize, EvictionPolicy evictionPolicy) {
+        if (maximumSize < SEGMENTS) {
+            throw new IllegalArgumentException("The cache must hold at least " + SEGMENTS + " results, not " + maximumSize);
+        }
+        this.delegate = delegate;
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(maximumSize / SEGMENTS, evictionPolicy == EvictionPolicy.LRU);
+        }
+    }
+
+    @Override
+    public Result checkCode(Code code, Code guess) {
+        var key = keyOf(code, guess);
+        var segment = this.segmentOf(key);
+
+        var result = this.lookup(segment, key);
+        if (result != null) {
+            return result;
+        }
+
+        result = this.delegate.checkCode(code, guess);
+        synchronized (segment) {
+            segment.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Result> checkCodeAsync(Code code, Code guess) {
+        var key = keyOf(code, guess);
+        var segment = this.segmentOf(key);
+
+        var result = this.lookup(segment, key);
+        if (result != null) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        return this.delegate.checkCodeAsync(code, guess).thenApply(checked -> {
+            synchronized (segment) {
+                segment.put(key, checked);
+            }
+            return checked;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Result>> checkCodesAsync(List<Code> codes, List<Code> guesses) {
+        var results = new Result[codes.size()];
+        var missingCodes = new ArrayList<Code>();
+        var missingGuesses = new ArrayList<Code>();
+        var missingIndexes = new ArrayList<Integer>();
+        for (int i = 0; i < results.length; i++) {
+            var key = keyOf(codes.get(i), guesses.get(i));
+            results[i] = this.lookup(this.segmentOf(key), key);
+            if (results[i] == null) {
+                missingCodes.add(codes.get(i));
+                missingGuesses.add(guesses.get(i));
+                missingIndexes.add(i);
+            }
+        }
+        if (missingIndexes.isEmpty()) {
+            return CompletableFuture.completedFuture(Arrays.asList(results));
+        }
+
+        return this.delegate.checkCodesAsync(missingCodes, missingGuesses).thenApply(checked -> {
+            for (int i = 0; i < checked.size(); i++) {
+                var key = keyOf(missingCodes.get(i), missingGuesses.get(i));
+                var segment = this.segmentOf(key);
+                synchronized (segment) {
+                    segment.put(key, checked.get(i));
+                }
+                results[missingIndexes.get(i)] = checked.get(i);
+            }
+            return Arrays.asList(results);
+        });
+    }
+
+    private Result lookup(Segment segment, int key) {
+        Result result;
+        synchronized (segment) {
+            result = segment.get(key);
+        }
+        if (result != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+        }
+        return result;
+    }
+
+    private Segment segmentOf(int key) {
+        return this.segments[(key ^ key >>> 12) & (SEGMENTS - 1)];
+    }
+
+    private static int keyOf(Code code, Code guess) {
+        return CodeEncoding.pack(code) << 12 | CodeEncoding.pack(guess);
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long size() {
+        var size = 0L;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static class Segment extends LinkedHashMap<Integer, Result> {
+        private final int maximumSize;
+
+        private Segment(int maximumSize, boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Result> eldest) {
+            return this.size() > this.maximumSize;
+        }
+    }
+}
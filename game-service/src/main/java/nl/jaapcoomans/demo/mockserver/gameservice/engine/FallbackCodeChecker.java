@@ -0,0 +1,58 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+public class FallbackCodeChecker implements CodeChecker {
+    private static final Logger LOG = LoggerFactory.getLogger(FallbackCodeChecker.class);
+
+    private final CodeChecker primary;
+    private final CodeChecker fallback;
+
+    private final LongAdder fallbacks = new LongAdder();
+
+    public FallbackCodeChecker(CodeChecker primary, CodeChecker fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Result checkCode(Code code, Code guess) {
+        try {
+            return this.primary.checkCode(code, guess);
+        } catch (RuntimeException e) {
+            this.fallbacks.increment();
+            LOG.warn("Code checker failed, using the fallback: {}", e.getMessage());
+            return this.fallback.checkCode(code, guess);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Result> checkCodeAsync(Code code, Code guess) {
+        return this.primary.checkCodeAsync(code, guess).exceptionallyCompose(e -> {
+            this.fallbacks.increment();
+            LOG.warn("Code checker failed, using the fallback: {}", e.getMessage());
+            return this.fallback.checkCodeAsync(code, guess);
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Result>> checkCodesAsync(List<Code> codes, List<Code> guesses) {
+        return this.primary.checkCodesAsync(codes, guesses).exceptionallyCompose(e -> {
+            this.fallbacks.increment();
+            LOG.warn("Code checker failed, using the fallback: {}", e.getMessage());
+            return this.fallback.checkCodesAsync(codes, guesses);
+        });
+    }
+
+    public long getFallbacks() {
+        return this.fallbacks.sum();
+    }
+}
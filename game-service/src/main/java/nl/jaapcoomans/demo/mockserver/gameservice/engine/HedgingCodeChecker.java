@@ -0,0 +1,110 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.metrics.LatencyHistogram;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.Deadline;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Checking a guess has no side effects, so a second request for it is harmless.
+public class HedgingCodeChecker implements CodeChecker {
+    static final long MINIMUM_SAMPLES = 100;
+
+    private final CodeChecker delegate;
+    private final LatencyHistogram latencies;
+    private final double percentile;
+    private final Duration minimumDelay;
+
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public HedgingCodeChecker(CodeChecker delegate, LatencyHistogram latencies, double percentile, Duration minimumDelay) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 1, not " + percentile);
+        }
+        this.delegate = delegate;
+        this.latencies = latencies;
+        this.percentile = percentile;
+        this.minimumDelay = minimumDelay;
+    }
+
+    @Override
+    public Result checkCode(Code code, Code guess) {
+        try {
+            return this.checkCodeAsync(code, guess).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Result> checkCodeAsync(Code code, Code guess) {
+        var first = this.delegate.checkCodeAsync(code, guess);
+        if (first.isDone() || this.latencies.count() < MINIMUM_SAMPLES) {
+            return first;
+        }
+
+        // The result fails only when every request that was sent has failed.
+        var result = new CompletableFuture<Result>();
+        var requestsInFlight = new AtomicInteger(1);
+        first.whenComplete((answer, e) -> {
+            if (e == null) {
+                result.complete(answer);
+            } else if (requestsInFlight.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        var deadline = Deadline.current();
+        var delay = this.hedgeDelay();
+        CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            requestsInFlight.incrementAndGet();
+            this.hedges.increment();
+            try (var ignored = deadline.map(Deadline::enter).orElse(null)) {
+                this.delegate.checkCodeAsync(code, guess).whenComplete((answer, e) -> {
+                    if (e == null) {
+                        if (result.complete(answer)) {
+                            this.hedgeWins.increment();
+                        }
+                    } else if (requestsInFlight.decrementAndGet() == 0) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<List<Result>> checkCodesAsync(List<Code> codes, List<Code> guesses) {
+        // A batch takes longer than the single checks the percentile is taken from, so it is not hedged.
+        return this.delegate.checkCodesAsync(codes, guesses);
+    }
+
+    private Duration hedgeDelay() {
+        var delay = this.latencies.percentile(this.percentile);
+        return delay.compareTo(this.minimumDelay) < 0 ? this.minimumDelay : delay;
+    }
+
+    public long getHedges() {
+        return this.hedges.sum();
+    }
+
+    public long getHedgeWins() {
+        return this.hedgeWins.sum();
+    }
+}
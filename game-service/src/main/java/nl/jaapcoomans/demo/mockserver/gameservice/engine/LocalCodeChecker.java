@@ -0,0 +1,57 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+
+// Black pins are the zero groups of code XOR guess, white pins the shared colors minus the black pins.
+public class LocalCodeChecker implements CodeChecker {
+    private static final int PINS = 4;
+    private static final int COLORS = ColoredPin.values().length;
+    private static final int BITS = CodeEncoding.BITS_PER_PIN;
+    private static final int MASK = (1 << BITS) - 1;
+
+    // The number of zero 3-bit groups of every 12-bit value.
+    private static final byte[] ZERO_GROUPS = new byte[CodeEncoding.NUMBER_OF_CODES];
+    // How often every color occurs in a code, three bits per color with color 0 in the lowest bits.
+    private static final int[] HISTOGRAMS = new int[CodeEncoding.NUMBER_OF_CODES];
+    private static final Result[] RESULTS = new Result[(PINS + 1) * (PINS + 1)];
+
+    static {
+        for (int value = 0; value < CodeEncoding.NUMBER_OF_CODES; value++) {
+            for (int pin = 0; pin < PINS; pin++) {
+                var color = (value >>> (pin * BITS)) & MASK;
+                if (color == 0) {
+                    ZERO_GROUPS[value]++;
+                }
+                HISTOGRAMS[value] += 1 << (color * BITS);
+            }
+        }
+        for (int black = 0; black <= PINS; black++) {
+            for (int white = 0; white <= PINS - black; white++) {
+                RESULTS[black * (PINS + 1) + white] = new Result(black, white);
+            }
+        }
+    }
+
+    @Override
+    public Result checkCode(Code code, Code guess) {
+        return check(CodeEncoding.pack(code), CodeEncoding.pack(guess));
+    }
+
+    public static Result check(int code, int guess) {
+        var black = ZERO_GROUPS[code ^ guess];
+        var white = commonColors(HISTOGRAMS[code], HISTOGRAMS[guess]) - black;
+        return RESULTS[black * (PINS + 1) + white];
+    }
+
+    private static int commonColors(int histogram, int other) {
+        var common = 0;
+        for (int color = 0; color < COLORS; color++) {
+            common += Math.min((histogram >>> (color * BITS)) & MASK, (other >>> (color * BITS)) & MASK);
+        }
+        return common;
+    }
+}
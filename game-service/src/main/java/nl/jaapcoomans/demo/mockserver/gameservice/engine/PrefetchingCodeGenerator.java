@@ -0,0 +1,172 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Refilled in the background to the high watermark once it drops to the low watermark.
+public class PrefetchingCodeGenerator implements CodeGenerator {
+    private static final Logger LOG = LoggerFactory.getLogger(PrefetchingCodeGenerator.class);
+
+    private final CodeGenerator delegate;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final BlockingQueue<Code> buffer;
+
+    private final Executor refillThread;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder refilledCodes = new LongAdder();
+    private final LongAdder refillFailures = new LongAdder();
+    private final LongAdder underruns = new LongAdder();
+
+    public PrefetchingCodeGenerator(CodeGenerator delegate, int lowWatermark, int highWatermark) {
+        this(delegate, lowWatermark, highWatermark, Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "code-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    PrefetchingCodeGenerator(CodeGenerator delegate, int lowWatermark, int highWatermark, Executor refillThread) {
+        if (lowWatermark < 0 || lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("The low watermark must be below the high watermark, not " + lowWatermark + " and " + highWatermark);
+        }
+        this.delegate = delegate;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.buffer = new ArrayBlockingQueue<>(highWatermark);
+        this.refillThread = refillThread;
+
+        this.requestRefill();
+    }
+
+    @Override
+    public Code generateCode() {
+        var code = this.take();
+        return code != null ? code : this.delegate.generateCode();
+    }
+
+    @Override
+    public CompletableFuture<Code> generateCodeAsync() {
+        var code = this.take();
+        return code != null ? CompletableFuture.completedFuture(code) : this.delegate.generateCodeAsync();
+    }
+
+    @Override
+    public List<Code> generateCodes(int count) {
+        var codes = this.take(count);
+        if (codes.size() < count) {
+            codes.addAll(this.delegate.generateCodes(count - codes.size()));
+        }
+        return codes;
+    }
+
+    @Override
+    public CompletableFuture<List<Code>> generateCodesAsync(int count) {
+        var codes = this.take(count);
+        if (codes.size() == count) {
+            return CompletableFuture.completedFuture(codes);
+        }
+        return this.delegate.generateCodesAsync(count - codes.size()).thenApply(generated -> {
+            codes.addAll(generated);
+            return codes;
+        });
+    }
+
+    private Code take() {
+        var code = this.buffer.poll();
+        if (this.buffer.size() <= this.lowWatermark) {
+            this.requestRefill();
+        }
+        if (code == null) {
+            this.underruns.increment();
+        }
+        return code;
+    }
+
+    private List<Code> take(int count) {
+        var codes = new ArrayList<Code>(count);
+        this.buffer.drainTo(codes, count);
+        if (this.buffer.size() <= this.lowWatermark) {
+            this.requestRefill();
+        }
+        if (codes.size() < count) {
+            this.underruns.increment();
+        }
+        return codes;
+    }
+
+    private void requestRefill() {
+        if (this.refilling.compareAndSet(false, true)) {
+            this.refillThread.execute(this::refill);
+        }
+    }
+
+    private void refill() {
+        try {
+            this.refills.increment();
+            var missing = this.highWatermark - this.buffer.size();
+            if (missing > 0) {
+                List<Code> codes;
+                try {
+                    codes = this.delegate.generateCodes(missing);
+                } catch (RuntimeException e) {
+                    LOG.debug("Unable to generate a batch of codes, refilling one by one: {}", e.getMessage());
+                    codes = List.of();
+                }
+                codes.forEach(this::offer);
+                // Stops at the first failure, the generator is likely down.
+                for (int i = codes.size(); i < missing; i++) {
+                    this.offer(this.delegate.generateCode());
+                }
+            }
+        } catch (RuntimeException e) {
+            // Retried when the next code is taken, at the pace of new games.
+            this.refillFailures.increment();
+            LOG.warn("Unable to refill the code buffer: {}", e.getMessage());
+        } finally {
+            this.refilling.set(false);
+        }
+    }
+
+    private void offer(Code code) {
+        if (code == null) {
+            throw new IllegalStateException("The code generator returned no code");
+        }
+        this.buffer.offer(code);
+        this.refilledCodes.increment();
+    }
+
+    public long getBufferedCodes() {
+        return this.buffer.size();
+    }
+
+    public long getRefills() {
+        return this.refills.sum();
+    }
+
+    public long getRefilledCodes() {
+        return this.refilledCodes.sum();
+    }
+
+    public long getRefillFailures() {
+        return this.refillFailures.sum();
+    }
+
+    public long getUnderruns() {
+        return this.underruns.sum();
+    }
+}
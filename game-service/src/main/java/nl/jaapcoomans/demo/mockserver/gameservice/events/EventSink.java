@@ -0,0 +1,15 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.events;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameEvent;
+
+import java.io.IOException;
+
+// Sending may block until the subscriber has taken the event.
+public interface EventSink {
+    void send(GameEvent event) throws IOException;
+
+    void close();
+
+    // Fails a send that is blocked on the connection.
+    void abort();
+}
@@ -0,0 +1,205 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.events;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameEvent;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// A subscriber whose queue overflows is disconnected, and can catch up by reading the games.
+public class GameEventBroadcaster implements GameEventListener {
+    private final int queueCapacity;
+    private final long sendTimeoutMillis;
+    private final Executor senders;
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<UUID, Set<Subscription>> gameSubscriptions = new ConcurrentHashMap<>();
+    private final Set<Subscription> allGamesSubscriptions = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder publishedEvents = new LongAdder();
+    private final LongAdder sentEvents = new LongAdder();
+    private final LongAdder slowSubscribers = new LongAdder();
+    private final LongAdder stuckSubscribers = new LongAdder();
+
+    public GameEventBroadcaster(int queueCapacity, Duration sendTimeout, Executor senders) {
+        this(queueCapacity, sendTimeout, senders, System::currentTimeMillis);
+
+        if (!sendTimeout.isZero()) {
+            var timeoutThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "event-send-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timeoutThread.scheduleAtFixedRate(this::disconnectStuckSubscribers,
+                    this.sendTimeoutMillis, this.sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    GameEventBroadcaster(int queueCapacity, Duration sendTimeout, Executor senders, LongSupplier clock) {
+        this.queueCapacity = queueCapacity;
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        this.senders = senders;
+        this.clock = clock;
+    }
+
+    // Ends after the game is won or lost.
+    public Subscription subscribe(UUID gameId, EventSink sink) {
+        var subscription = new Subscription(gameId, sink);
+        this.gameSubscriptions.compute(gameId, (id, subscriptions) -> {
+            var result = subscriptions == null ? ConcurrentHashMap.<Subscription>newKeySet() : subscriptions;
+            result.add(subscription);
+            return result;
+        });
+        return subscription;
+    }
+
+    public Subscription subscribeToAll(EventSink sink) {
+        var subscription = new Subscription(null, sink);
+        this.allGamesSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    @Override
+    public void onTurnPlayed(GameEvent event) {
+        this.publishedEvents.increment();
+        var subscriptions = this.gameSubscriptions.get(event.getGameId());
+        if (subscriptions != null) {
+            subscriptions.forEach(subscription -> subscription.offer(event));
+        }
+        this.allGamesSubscriptions.forEach(subscription -> subscription.offer(event));
+    }
+
+    void disconnectStuckSubscribers() {
+        var now = this.clock.getAsLong();
+        this.gameSubscriptions.values().forEach(subscriptions -> subscriptions.forEach(subscription -> subscription.abortIfStuck(now)));
+        this.allGamesSubscriptions.forEach(subscription -> subscription.abortIfStuck(now));
+    }
+
+    public long getSubscribers() {
+        return this.allGamesSubscriptions.size()
+                + this.gameSubscriptions.values().stream().mapToLong(Set::size).sum();
+    }
+
+    public long getPublishedEvents() {
+        return this.publishedEvents.sum();
+    }
+
+    public long getSentEvents() {
+        return this.sentEvents.sum();
+    }
+
+    public long getSlowSubscribers() {
+        return this.slowSubscribers.sum();
+    }
+
+    public long getStuckSubscribers() {
+        return this.stuckSubscribers.sum();
+    }
+
+    public class Subscription {
+        private final UUID gameId;
+        private final EventSink sink;
+        private final BlockingQueue<GameEvent> queue = new ArrayBlockingQueue<>(GameEventBroadcaster.this.queueCapacity);
+
+        // Set while a sender drains the queue, so a subscriber never gets its events from two threads at once.
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long sendStartedAt;
+
+        private Subscription(UUID gameId, EventSink sink) {
+            this.gameId = gameId;
+            this.sink = sink;
+        }
+
+        private void offer(GameEvent event) {
+            if (this.closed.get()) {
+                return;
+            }
+            if (!this.queue.offer(event)) {
+                GameEventBroadcaster.this.slowSubscribers.increment();
+                this.close();
+                return;
+            }
+            this.scheduleSend();
+        }
+
+        private void scheduleSend() {
+            if (this.sending.compareAndSet(false, true)) {
+                try {
+                    GameEventBroadcaster.this.senders.execute(this::send);
+                } catch (RejectedExecutionException e) {
+                    this.close();
+                }
+            }
+        }
+
+        // Sends one event and goes to the back of the line for the next, so the senders take turns between subscribers.
+        private void send() {
+            var event = this.closed.get() ? null : this.queue.poll();
+            if (event != null) {
+                this.sendStartedAt = GameEventBroadcaster.this.clock.getAsLong();
+                try {
+                    this.sink.send(event);
+                    GameEventBroadcaster.this.sentEvents.increment();
+                } catch (IOException | RuntimeException e) {
+                    this.close();
+                    return;
+                } finally {
+                    this.sendStartedAt = 0;
+                }
+                if (this.gameId != null && event.isFinal()) {
+                    this.close();
+                    return;
+                }
+            }
+            this.sending.set(false);
+            // The next event, or one offered after the poll but before sending was reset, is sent by a task of its own.
+            if (!this.queue.isEmpty() && !this.closed.get()) {
+                this.scheduleSend();
+            }
+        }
+
+        private void abortIfStuck(long now) {
+            var startedAt = this.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > GameEventBroadcaster.this.sendTimeoutMillis && this.end()) {
+                GameEventBroadcaster.this.stuckSubscribers.increment();
+                this.sink.abort();
+            }
+        }
+
+        public void close() {
+            if (this.end()) {
+                this.sink.close();
+            }
+        }
+
+        private boolean end() {
+            if (!this.closed.compareAndSet(false, true)) {
+                return false;
+            }
+            if (this.gameId == null) {
+                GameEventBroadcaster.this.allGamesSubscriptions.remove(this);
+            } else {
+                GameEventBroadcaster.this.gameSubscriptions.computeIfPresent(this.gameId, (id, subscriptions) -> {
+                    subscriptions.remove(this);
+                    return subscriptions.isEmpty() ? null : subscriptions;
+                });
+            }
+            this.queue.clear();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+
+import java.io.IOException;
+
+public class CodeCodec implements JsonCodec<Code> {
+    private static final ColoredPin[] COLORS = ColoredPin.values();
+    private static final SerializableString[] PIN_FIELDS = {
+            new SerializedString("pin0"), new SerializedString("pin1"), new SerializedString("pin2"), new SerializedString("pin3")
+    };
+    private static final SerializableString[] COLOR_VALUES = new SerializableString[COLORS.length];
+
+    static {
+        for (ColoredPin color : COLORS) {
+            COLOR_VALUES[color.ordinal()] = new SerializedString(color.name());
+        }
+    }
+
+    @Override
+    public void write(Code code, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        for (int pin = 0; pin < PIN_FIELDS.length; pin++) {
+            generator.writeFieldName(PIN_FIELDS[pin]);
+            generator.writeString(COLOR_VALUES[code.getPin(pin).ordinal()]);
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public Code read(JsonParser parser) throws IOException {
+        JsonCodecs.expect(parser, JsonToken.START_OBJECT);
+        ColoredPin pin0 = null;
+        ColoredPin pin1 = null;
+        ColoredPin pin2 = null;
+        ColoredPin pin3 = null;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "pin0":
+                    pin0 = readColor(parser);
+                    break;
+                case "pin1":
+                    pin1 = readColor(parser);
+                    break;
+                case "pin2":
+                    pin2 = readColor(parser);
+                    break;
+                case "pin3":
+                    pin3 = readColor(parser);
+                    break;
+                default:
+                    throw JsonCodecs.unknownField(parser, field);
+            }
+        }
+        JsonCodecs.expect(parser, JsonToken.END_OBJECT);
+
+        if (pin0 == null || pin1 == null || pin2 == null || pin3 == null) {
+            throw new JsonParseException(parser, "A code needs all four pins");
+        }
+        return Code.of(pin0, pin1, pin2, pin3);
+    }
+
+    // Compares the characters in the buffer of the parser, so reading a color does not create a string.
+    private static ColoredPin readColor(JsonParser parser) throws IOException {
+        JsonCodecs.expect(parser, JsonToken.VALUE_STRING);
+        var characters = parser.getTextCharacters();
+        var offset = parser.getTextOffset();
+        var length = parser.getTextLength();
+        for (ColoredPin color : COLORS) {
+            if (matches(color.name(), characters, offset, length)) {
+                return color;
+            }
+        }
+        throw new JsonParseException(parser, "Unknown color " + parser.getText());
+    }
+
+    private static boolean matches(String name, char[] characters, int offset, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != characters[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+public enum DataFormat {
+    JSON("application/json", JsonFactory::new),
+    SMILE("application/x-jackson-smile", SmileFactory::new),
+    CBOR("application/cbor", CBORFactory::new);
+
+    private final String mediaType;
+    private final Supplier<JsonFactory> factory;
+
+    DataFormat(String mediaType, Supplier<JsonFactory> factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    JsonFactory newFactory() {
+        return this.factory.get();
+    }
+
+    public static DataFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public static Optional<DataFormat> ofContentType(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        var mediaType = mediaTypeOf(contentType);
+        for (DataFormat format : values()) {
+            if (format.mediaType.equalsIgnoreCase(mediaType)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // The offered format with the highest quality, JSON when none matches.
+    public static DataFormat negotiate(String accept, Set<DataFormat> offered) {
+        if (accept == null) {
+            return JSON;
+        }
+        var best = JSON;
+        var bestQuality = 0.0;
+        for (String range : accept.split(",")) {
+            var format = ofContentType(range);
+            if (format.isEmpty() || !offered.contains(format.get())) {
+                continue;
+            }
+            var quality = qualityOf(range);
+            if (quality > bestQuality) {
+                best = format.get();
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static String mediaTypeOf(String range) {
+        var parameters = range.indexOf(';');
+        return (parameters < 0 ? range : range.substring(0, parameters)).trim();
+    }
+
+    private static double qualityOf(String range) {
+        for (String parameter : range.split(";")) {
+            var pair = parameter.trim();
+            if (pair.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(pair.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0.0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
@@ -0,0 +1,37 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// The codecs only use the streaming API, so one registration serves every format.
+public class DataFormats {
+    private final Map<DataFormat, JsonCodecs> codecs = new EnumMap<>(DataFormat.class);
+
+    public DataFormats(Function<JsonFactory, ObjectMapper> objectMapper) {
+        for (DataFormat format : DataFormat.values()) {
+            this.codecs.put(format, new JsonCodecs(objectMapper.apply(format.newFactory())));
+        }
+    }
+
+    public <T> DataFormats register(Class<T> type, JsonCodec<T> codec) {
+        this.codecs.values().forEach(codecs -> codecs.register(type, codec));
+        return this;
+    }
+
+    public <T> DataFormats registerWriter(Class<T> type, JsonWriter<T> writer) {
+        this.codecs.values().forEach(codecs -> codecs.registerWriter(type, writer));
+        return this;
+    }
+
+    public JsonCodecs codecsFor(DataFormat format) {
+        return this.codecs.get(format);
+    }
+
+    public JsonCodecs json() {
+        return this.codecsFor(DataFormat.JSON);
+    }
+}
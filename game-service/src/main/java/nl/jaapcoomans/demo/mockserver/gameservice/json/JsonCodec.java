@@ -0,0 +1,4 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+public interface JsonCodec<T> extends JsonWriter<T>, JsonReader<T> {
+}
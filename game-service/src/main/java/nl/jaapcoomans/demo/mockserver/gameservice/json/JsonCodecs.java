@@ -0,0 +1,177 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The string methods are only meant for JSON.
+public class JsonCodecs {
+    private final ObjectMapper objectMapper;
+    private final JsonFactory factory;
+
+    private final Map<Class<?>, JsonWriter<?>> streamingWriters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, JsonReader<?>> streamingReaders = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public JsonCodecs(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.factory = objectMapper.getFactory();
+        this.register(Code.class, new CodeCodec());
+        this.register(Result.class, new ResultCodec());
+    }
+
+    public <T> JsonCodecs register(Class<T> type, JsonCodec<T> codec) {
+        this.streamingWriters.put(type, codec);
+        this.streamingReaders.put(type, codec);
+        return this;
+    }
+
+    public <T> JsonCodecs registerWriter(Class<T> type, JsonWriter<T> writer) {
+        this.streamingWriters.put(type, writer);
+        return this;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return this.objectMapper;
+    }
+
+    public boolean hasReaderFor(Class<?> type) {
+        return this.streamingReaders.containsKey(type);
+    }
+
+    public String toJson(Object value) {
+        var writer = new SegmentedStringWriter(this.factory._getBufferRecycler());
+        try {
+            var streamingWriter = this.streamingWriterFor(value);
+            if (streamingWriter == null) {
+                this.writerFor(value).writeValue(writer, value);
+            } else {
+                try (var generator = this.factory.createGenerator(writer)) {
+                    streamingWriter.write(value, generator);
+                }
+            }
+            return writer.getAndClear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public byte[] toJsonBytes(Object value) {
+        var bytes = new ByteArrayBuilder(this.factory._getBufferRecycler());
+        try {
+            var streamingWriter = this.streamingWriterFor(value);
+            if (streamingWriter == null) {
+                this.writerFor(value).writeValue(bytes, value);
+            } else {
+                try (var generator = this.factory.createGenerator(bytes, JsonEncoding.UTF8)) {
+                    streamingWriter.write(value, generator);
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            bytes.release();
+        }
+    }
+
+    public <T> T fromJson(String json, Class<T> type) {
+        var streamingReader = this.streamingReaderFor(type);
+        try {
+            if (streamingReader == null) {
+                return this.readerFor(type).readValue(json);
+            }
+            try (var parser = this.factory.createParser(json)) {
+                return readSingle(parser, streamingReader);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public <T> T fromJson(InputStream json, Class<T> type) throws IOException {
+        var streamingReader = this.streamingReaderFor(type);
+        if (streamingReader == null) {
+            return this.readerFor(type).readValue(json);
+        }
+        try (var parser = this.factory.createParser(json)) {
+            return readSingle(parser, streamingReader);
+        }
+    }
+
+    public <T> List<T> listFromJson(InputStream json, Class<T> elementType) throws IOException {
+        var streamingReader = this.streamingReaderFor(elementType);
+        if (streamingReader == null) {
+            return this.objectMapper.readerFor(this.objectMapper.getTypeFactory().constructCollectionType(List.class, elementType))
+                    .readValue(json);
+        }
+        try (var parser = this.factory.createParser(json)) {
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            expect(parser, JsonToken.START_ARRAY);
+            var values = new ArrayList<T>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(streamingReader.read(parser));
+            }
+            return values;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> JsonReader<T> streamingReaderFor(Class<T> type) {
+        return (JsonReader<T>) this.streamingReaders.get(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonWriter<Object> streamingWriterFor(Object value) {
+        return value == null ? null : (JsonWriter<Object>) this.streamingWriters.get(value.getClass());
+    }
+
+    private ObjectWriter writerFor(Object value) {
+        return value == null ? this.objectMapper.writer() : this.writers.computeIfAbsent(value.getClass(), this.objectMapper::writerFor);
+    }
+
+    private ObjectReader readerFor(Class<?> type) {
+        return this.readers.computeIfAbsent(type, this.objectMapper::readerFor);
+    }
+
+    private static <T> T readSingle(JsonParser parser, JsonReader<T> reader) throws IOException {
+        if (parser.nextToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        var value = reader.read(parser);
+        if (parser.nextToken() != null) {
+            throw new JsonParseException(parser, "Unexpected content after the value");
+        }
+        return value;
+    }
+
+    static void expect(JsonParser parser, JsonToken token) throws IOException {
+        if (parser.currentToken() != token) {
+            throw new JsonParseException(parser, "Expected " + token + " but found " + parser.currentToken());
+        }
+    }
+
+    static JsonParseException unknownField(JsonParser parser, String field) {
+        return new JsonParseException(parser, "Unrecognized field \"" + field + "\"");
+    }
+}
@@ -0,0 +1,10 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+public interface JsonReader<T> {
+    // Leaves the parser at the last token of the value.
+    T read(JsonParser parser) throws IOException;
+}
@@ -0,0 +1,9 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+public interface JsonWriter<T> {
+    void write(T value, JsonGenerator generator) throws IOException;
+}
@@ -0,0 +1,46 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+
+import java.io.IOException;
+
+public class ResultCodec implements JsonCodec<Result> {
+    static final SerializableString BLACK_PINS = new SerializedString("blackPins");
+    static final SerializableString WHITE_PINS = new SerializedString("whitePins");
+
+    @Override
+    public void write(Result result, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(BLACK_PINS);
+        generator.writeNumber(result.getBlackPins());
+        generator.writeFieldName(WHITE_PINS);
+        generator.writeNumber(result.getWhitePins());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public Result read(JsonParser parser) throws IOException {
+        JsonCodecs.expect(parser, JsonToken.START_OBJECT);
+        var blackPins = 0;
+        var whitePins = 0;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            if (BLACK_PINS.getValue().equals(field)) {
+                blackPins = parser.getIntValue();
+            } else if (WHITE_PINS.getValue().equals(field)) {
+                whitePins = parser.getIntValue();
+            } else {
+                throw JsonCodecs.unknownField(parser, field);
+            }
+        }
+        JsonCodecs.expect(parser, JsonToken.END_OBJECT);
+        return new Result(blackPins, whitePins);
+    }
+}
@@ -0,0 +1,104 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Eight buckets per power of two, for the current and the previous window.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+    private volatile long windowStart;
+
+    public LatencyHistogram(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    LatencyHistogram(Duration window, LongSupplier clock) {
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+        this.windowStart = clock.getAsLong();
+    }
+
+    public void record(long nanos) {
+        this.rotateIfNeeded();
+        this.current.incrementAndGet(bucketOf(Math.max(0, nanos) / 1000));
+    }
+
+    // Zero when nothing was recorded.
+    public Duration percentile(double fraction) {
+        this.rotateIfNeeded();
+        var current = this.current;
+        var previous = this.previous;
+
+        var counts = new long[BUCKETS];
+        var total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = current.get(i) + previous.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+
+        var rank = (long) Math.ceil(fraction * total);
+        var seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(upperBoundOf(i) * 1000);
+            }
+        }
+        return Duration.ofNanos(upperBoundOf(BUCKETS - 1) * 1000);
+    }
+
+    public long count() {
+        this.rotateIfNeeded();
+        var count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += this.current.get(i) + this.previous.get(i);
+        }
+        return count;
+    }
+
+    private void rotateIfNeeded() {
+        var now = this.clock.getAsLong();
+        if (now - this.windowStart < this.windowNanos) {
+            return;
+        }
+        synchronized (this) {
+            if (now - this.windowStart < this.windowNanos) {
+                return;
+            }
+            // After a quiet period longer than a window, the previous window is just as outdated as the current one.
+            this.previous = now - this.windowStart < 2 * this.windowNanos ? this.current : new AtomicLongArray(BUCKETS);
+            this.current = new AtomicLongArray(BUCKETS);
+            this.windowStart = now;
+        }
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        var shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        var subBucket = (int) (micros >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        var shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        var subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << shift;
+    }
+}
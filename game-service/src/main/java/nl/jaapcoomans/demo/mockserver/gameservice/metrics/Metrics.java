@@ -0,0 +1,26 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+public class Metrics {
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public void register(String name, LongSupplier gauge) {
+        if (this.gauges.putIfAbsent(name, gauge) != null) {
+            throw new IllegalArgumentException("A metric named " + name + " is already registered");
+        }
+    }
+
+    public SortedMap<String, Long> snapshot() {
+        var snapshot = new TreeMap<String, Long>();
+        for (Map.Entry<String, LongSupplier> gauge : this.gauges.entrySet()) {
+            snapshot.put(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+        return snapshot;
+    }
+}
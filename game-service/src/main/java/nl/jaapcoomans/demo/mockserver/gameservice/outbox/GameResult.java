@@ -0,0 +1,29 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.outbox;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+
+import java.util.UUID;
+
+class GameResult {
+    private final UUID gameId;
+    private final GameStatus status;
+    private final int guesses;
+
+    GameResult(UUID gameId, GameStatus status, int guesses) {
+        this.gameId = gameId;
+        this.status = status;
+        this.guesses = guesses;
+    }
+
+    UUID getGameId() {
+        return gameId;
+    }
+
+    GameStatus getStatus() {
+        return status;
+    }
+
+    int getGuesses() {
+        return guesses;
+    }
+}
@@ -0,0 +1,110 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.outbox;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Starts with the offset of the first undelivered record, so delivered results are not sent again.
+class SpillFile implements Closeable {
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int RECORD_SIZE = 2 * Long.BYTES + 2;
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private final FileChannel channel;
+    private long readOffset;
+    private long writeOffset;
+
+    SpillFile(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        var size = this.channel.size();
+        if (size < HEADER_SIZE) {
+            this.readOffset = HEADER_SIZE;
+            this.writeOffset = HEADER_SIZE;
+            this.writeHeader();
+        } else {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            this.channel.read(header, 0);
+            this.readOffset = header.flip().getLong();
+            // A record torn by a crash is dropped.
+            this.writeOffset = HEADER_SIZE + (size - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+        }
+    }
+
+    // Returns false when the file is closed.
+    synchronized boolean append(GameResult result) {
+        if (!this.channel.isOpen()) {
+            return false;
+        }
+        var record = ByteBuffer.allocate(RECORD_SIZE)
+                .putLong(result.getGameId().getMostSignificantBits())
+                .putLong(result.getGameId().getLeastSignificantBits())
+                .put((byte) result.getStatus().ordinal())
+                .put((byte) result.getGuesses())
+                .flip();
+        try {
+            this.channel.write(record, this.writeOffset);
+            this.writeOffset += RECORD_SIZE;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to spill a game result", e);
+        }
+        return true;
+    }
+
+    synchronized List<GameResult> peek(int maximum) {
+        var count = (int) Math.min(maximum, this.size());
+        var records = ByteBuffer.allocate(count * RECORD_SIZE);
+        try {
+            this.channel.read(records, this.readOffset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read spilled game results", e);
+        }
+        records.flip();
+
+        var results = new ArrayList<GameResult>(count);
+        for (int i = 0; i < count; i++) {
+            var gameId = new UUID(records.getLong(), records.getLong());
+            results.add(new GameResult(gameId, STATUSES[records.get()], records.get()));
+        }
+        return results;
+    }
+
+    synchronized void remove(int count) {
+        this.readOffset += (long) count * RECORD_SIZE;
+        try {
+            if (this.readOffset >= this.writeOffset) {
+                this.channel.truncate(HEADER_SIZE);
+                this.readOffset = HEADER_SIZE;
+                this.writeOffset = HEADER_SIZE;
+            }
+            this.writeHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to remove delivered game results", e);
+        }
+    }
+
+    synchronized long size() {
+        return (this.writeOffset - this.readOffset) / RECORD_SIZE;
+    }
+
+    private void writeHeader() throws IOException {
+        this.channel.write(ByteBuffer.allocate(HEADER_SIZE).putLong(this.readOffset).flip(), 0);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.channel.force(true);
+        this.channel.close();
+    }
+}
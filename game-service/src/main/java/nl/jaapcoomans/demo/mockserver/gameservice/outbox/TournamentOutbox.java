@@ -0,0 +1,212 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.outbox;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.TournamentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Results are acknowledged once queued in memory: a crash loses the queue, a close spills it.
+public class TournamentOutbox implements TournamentService, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(TournamentOutbox.class);
+
+    private static final String SPILL_FILE = "tournament-outbox.dat";
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(100);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    private static final long POLL_MILLIS = 100;
+
+    private final TournamentService delegate;
+    private final BlockingQueue<GameResult> queue;
+    private final SpillFile spillFile;
+    private final int batchSize;
+    private final long minBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long drainTimeoutMillis;
+
+    private final Thread sender;
+    private final Object sleeper = new Object();
+    private volatile boolean closing;
+    private volatile long drainDeadline;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedSends = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public TournamentOutbox(TournamentService delegate, Path directory, int capacity, int batchSize) throws IOException {
+        this(delegate, directory, capacity, batchSize, MIN_BACKOFF, MAX_BACKOFF, DRAIN_TIMEOUT);
+    }
+
+    TournamentOutbox(TournamentService delegate, Path directory, int capacity, int batchSize,
+                     Duration minBackoff, Duration maxBackoff, Duration drainTimeout) throws IOException {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.spillFile = new SpillFile(directory.resolve(SPILL_FILE));
+        this.batchSize = batchSize;
+        this.minBackoffMillis = minBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.drainTimeoutMillis = drainTimeout.toMillis();
+
+        this.sender = new Thread(this::sendLoop, "tournament-outbox");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    @Override
+    public void gameEnded(UUID gameId, GameStatus result, int guesses) {
+        var gameResult = new GameResult(gameId, result, guesses);
+        if (this.closing || !this.queue.offer(gameResult)) {
+            if (this.spillFile.append(gameResult)) {
+                this.overflows.increment();
+            } else {
+                this.dropped.increment();
+                LOG.warn("The outbox is closed, dropping the {} result of game {}", result, gameId);
+            }
+        }
+    }
+
+    private void sendLoop() {
+        var batch = new ArrayList<GameResult>(this.batchSize);
+        var fromSpillFile = false;
+        var backoffMillis = this.minBackoffMillis;
+
+        while (!this.isDrained(batch)) {
+            if (batch.isEmpty()) {
+                fromSpillFile = this.spillFile.size() > 0;
+                if (fromSpillFile) {
+                    batch.addAll(this.spillFile.peek(this.batchSize));
+                } else if (!this.takeFromQueue(batch)) {
+                    continue;
+                }
+            }
+
+            var delivered = this.send(batch);
+            if (fromSpillFile) {
+                this.spillFile.remove(delivered);
+            }
+            batch.subList(0, delivered).clear();
+
+            if (batch.isEmpty()) {
+                backoffMillis = this.minBackoffMillis;
+            } else if (this.closing && System.currentTimeMillis() >= this.drainDeadline) {
+                break;
+            } else {
+                this.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, this.maxBackoffMillis);
+            }
+        }
+
+        if (!fromSpillFile) {
+            batch.forEach(this.spillFile::append);
+        }
+        this.spillQueue();
+    }
+
+    private void spillQueue() {
+        GameResult result;
+        while ((result = this.queue.poll()) != null) {
+            this.spillFile.append(result);
+        }
+    }
+
+    private boolean isDrained(List<GameResult> batch) {
+        return this.closing && batch.isEmpty() && this.queue.isEmpty() && this.spillFile.size() == 0;
+    }
+
+    private boolean takeFromQueue(List<GameResult> batch) {
+        try {
+            var first = this.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return false;
+            }
+            batch.add(first);
+            this.queue.drainTo(batch, this.batchSize - 1);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Returns how many results from the start of the batch were delivered before the tournament service failed.
+    private int send(List<GameResult> batch) {
+        var delivered = 0;
+        try {
+            for (GameResult result : batch) {
+                this.delegate.gameEnded(result.getGameId(), result.getStatus(), result.getGuesses());
+                delivered++;
+                this.sent.increment();
+            }
+        } catch (RuntimeException e) {
+            this.failedSends.increment();
+            LOG.warn("Unable to report a game result to the tournament service, retrying: {}", e.getMessage());
+        }
+        return delivered;
+    }
+
+    private void sleep(long millis) {
+        synchronized (this.sleeper) {
+            try {
+                var timeout = this.closing ? Math.min(millis, this.drainDeadline - System.currentTimeMillis()) : millis;
+                if (timeout > 0) {
+                    this.sleeper.wait(timeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public long getQueuedResults() {
+        return this.queue.size();
+    }
+
+    public long getSpilledResults() {
+        return this.spillFile.size();
+    }
+
+    public long getSentResults() {
+        return this.sent.sum();
+    }
+
+    public long getFailedSends() {
+        return this.failedSends.sum();
+    }
+
+    public long getOverflows() {
+        return this.overflows.sum();
+    }
+
+    public long getDroppedResults() {
+        return this.dropped.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.drainDeadline = System.currentTimeMillis() + this.drainTimeoutMillis;
+        this.closing = true;
+        synchronized (this.sleeper) {
+            this.sleeper.notifyAll();
+        }
+        try {
+            this.sender.join(this.drainTimeoutMillis + POLL_MILLIS + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // A result can have been queued just before closing was noticed.
+        this.spillQueue();
+        this.spillFile.close();
+    }
+}
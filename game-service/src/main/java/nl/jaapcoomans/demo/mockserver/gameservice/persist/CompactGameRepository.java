@@ -0,0 +1,291 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameRepository;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+// Six longs per game in striped primitive arrays, see GameEncoding.
+public class CompactGameRepository implements GameRepository {
+    private static final int WORDS_PER_GAME = 2 + GameEncoding.WORDS;
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int INITIAL_GAMES_PER_STRIPE = 64;
+
+    private static final Set<GameStatus> ALL_STATUSES = EnumSet.allOf(GameStatus.class);
+
+    private final Stripe[] stripes;
+
+    public CompactGameRepository() {
+        this(DEFAULT_STRIPES);
+    }
+
+    CompactGameRepository(int numberOfStripes) {
+        if (Integer.bitCount(numberOfStripes) != 1) {
+            throw new IllegalArgumentException("The number of stripes must be a power of two, not " + numberOfStripes);
+        }
+        this.stripes = new Stripe[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public Optional<Game> findById(UUID id) {
+        return Optional.ofNullable(this.stripeOf(id).find(id));
+    }
+
+    @Override
+    public Game persist(Game game) {
+        this.stripeOf(game.getId()).store(game);
+        return game;
+    }
+
+    // The games are grouped by stripe, so every stripe is locked once for the whole batch.
+    @Override
+    public void persistAll(List<Game> games) {
+        var byStripe = new HashMap<Stripe, List<Game>>();
+        for (Game game : games) {
+            byStripe.computeIfAbsent(this.stripeOf(game.getId()), stripe -> new ArrayList<>()).add(game);
+        }
+        byStripe.forEach(Stripe::storeAll);
+    }
+
+    @Override
+    public List<Game> findAll() {
+        var games = new ArrayList<Game>();
+        for (Stripe stripe : this.stripes) {
+            stripe.collect(games);
+        }
+        return Collections.unmodifiableList(games);
+    }
+
+    @Override
+    public List<Game> findPage(PageRequest page) {
+        return this.collectPage(page, ALL_STATUSES);
+    }
+
+    @Override
+    public List<Game> findByStatus(GameStatus status, PageRequest page) {
+        return this.collectPage(page, EnumSet.of(status));
+    }
+
+    @Override
+    public long countByStatus(GameStatus status) {
+        var count = 0L;
+        for (Stripe stripe : this.stripes) {
+            count += stripe.count(status);
+        }
+        return count;
+    }
+
+    public long size() {
+        var size = 0L;
+        for (Stripe stripe : this.stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public long getAllocatedBytes() {
+        var bytes = 0L;
+        for (Stripe stripe : this.stripes) {
+            bytes += stripe.allocatedBytes();
+        }
+        return bytes;
+    }
+
+    private List<Game> collectPage(PageRequest page, Set<GameStatus> statuses) {
+        var collector = new PageCollector(page);
+        for (Stripe stripe : this.stripes) {
+            stripe.offerTo(collector, statuses);
+        }
+        return Collections.unmodifiableList(collector.result());
+    }
+
+    private Stripe stripeOf(UUID id) {
+        return this.stripes[(int) mix(id.getMostSignificantBits(), id.getLeastSignificantBits()) & (this.stripes.length - 1)];
+    }
+
+    // The low half of the mixed bits selects the stripe, the high half the bucket in the index of that stripe.
+    private static long mix(long mostSignificantBits, long leastSignificantBits) {
+        var hash = mostSignificantBits ^ leastSignificantBits;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int bucketOf(long mostSignificantBits, long leastSignificantBits, int mask) {
+        return (int) (mix(mostSignificantBits, leastSignificantBits) >>> 32) & mask;
+    }
+
+    private static class Stripe {
+        private final StampedLock lock = new StampedLock();
+
+        // Game n occupies words [n * WORDS_PER_GAME, (n + 1) * WORDS_PER_GAME): id msb, id lsb and the encoded state.
+        private long[] games = new long[INITIAL_GAMES_PER_STRIPE * WORDS_PER_GAME];
+        private int size;
+        private final int[] gamesByStatus = new int[GameStatus.values().length];
+
+        // Open addressing table of game number + 1, zero marks a free bucket. Kept at most half full.
+        private int[] index = new int[INITIAL_GAMES_PER_STRIPE * 2];
+
+        private Game find(UUID id) {
+            var stamp = this.lock.readLock();
+            try {
+                var game = this.lookup(id);
+                return game < 0 ? null : GameEncoding.decode(id, this.games, game * WORDS_PER_GAME + 2);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        private void store(Game game) {
+            var stamp = this.lock.writeLock();
+            try {
+                this.write(game);
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        private void storeAll(List<Game> games) {
+            var stamp = this.lock.writeLock();
+            try {
+                for (Game game : games) {
+                    this.write(game);
+                }
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        private void write(Game game) {
+            var number = this.lookup(game.getId());
+            if (number < 0) {
+                number = this.append(game.getId());
+            } else {
+                this.gamesByStatus[GameEncoding.statusOf(this.games, number * WORDS_PER_GAME + 2).ordinal()]--;
+            }
+            GameEncoding.encode(game, this.games, number * WORDS_PER_GAME + 2);
+            this.gamesByStatus[game.getStatus().ordinal()]++;
+        }
+
+        private void collect(List<Game> target) {
+            var stamp = this.lock.readLock();
+            try {
+                for (int number = 0; number < this.size; number++) {
+                    var offset = number * WORDS_PER_GAME;
+                    var id = new UUID(this.games[offset], this.games[offset + 1]);
+                    target.add(GameEncoding.decode(id, this.games, offset + 2));
+                }
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        private void offerTo(PageCollector collector, Set<GameStatus> statuses) {
+            var stamp = this.lock.readLock();
+            try {
+                for (int number = 0; number < this.size; number++) {
+                    var offset = number * WORDS_PER_GAME;
+                    if (!statuses.contains(GameEncoding.statusOf(this.games, offset + 2))) {
+                        continue;
+                    }
+                    var id = new UUID(this.games[offset], this.games[offset + 1]);
+                    collector.offer(id, () -> GameEncoding.decode(id, this.games, offset + 2));
+                }
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        private int count(GameStatus status) {
+            var stamp = this.lock.readLock();
+            try {
+                return this.gamesByStatus[status.ordinal()];
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        private int size() {
+            var stamp = this.lock.readLock();
+            try {
+                return this.size;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        private long allocatedBytes() {
+            var stamp = this.lock.readLock();
+            try {
+                return (long) this.games.length * Long.BYTES + (long) this.index.length * Integer.BYTES;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        private int lookup(UUID id) {
+            var mostSignificantBits = id.getMostSignificantBits();
+            var leastSignificantBits = id.getLeastSignificantBits();
+            var mask = this.index.length - 1;
+            for (int bucket = bucketOf(mostSignificantBits, leastSignificantBits, mask); ; bucket = (bucket + 1) & mask) {
+                var entry = this.index[bucket];
+                if (entry == 0) {
+                    return -1;
+                }
+                var offset = (entry - 1) * WORDS_PER_GAME;
+                if (this.games[offset] == mostSignificantBits && this.games[offset + 1] == leastSignificantBits) {
+                    return entry - 1;
+                }
+            }
+        }
+
+        private int append(UUID id) {
+            if ((this.size + 1) * WORDS_PER_GAME > this.games.length) {
+                this.games = Arrays.copyOf(this.games, this.games.length * 2);
+            }
+            var number = this.size++;
+            this.games[number * WORDS_PER_GAME] = id.getMostSignificantBits();
+            this.games[number * WORDS_PER_GAME + 1] = id.getLeastSignificantBits();
+
+            if (this.size * 2 > this.index.length) {
+                this.rehash(this.index.length * 2);
+            } else {
+                this.insert(this.index, number);
+            }
+            return number;
+        }
+
+        private void rehash(int capacity) {
+            var newIndex = new int[capacity];
+            for (int number = 0; number < this.size; number++) {
+                this.insert(newIndex, number);
+            }
+            this.index = newIndex;
+        }
+
+        private void insert(int[] table, int number) {
+            var offset = number * WORDS_PER_GAME;
+            var mask = table.length - 1;
+            var bucket = bucketOf(this.games[offset], this.games[offset + 1], mask);
+            while (table[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            table[bucket] = number + 1;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Turn;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+// Word 0 holds the code in bits 0-11, the turn count in 12-15 and turns 0-1, the others three 18-bit turns each.
+final class GameEncoding {
+    static final int WORDS = 4;
+
+    private static final int PINS = 4;
+    private static final int HEADER_BITS = 16;
+    private static final int TURN_BITS = 18;
+    private static final int TURNS_IN_FIRST_WORD = 2;
+    private static final int TURNS_PER_WORD = 3;
+    private static final long CODE_MASK = (1L << 12) - 1;
+    private static final long PIN_COUNT_MASK = (1L << 3) - 1;
+    private static final long TURN_MASK = (1L << TURN_BITS) - 1;
+
+    private GameEncoding() {
+    }
+
+    static void encode(Game game, long[] words, int offset) {
+        var turns = game.getTurns();
+        for (int i = 0; i < WORDS; i++) {
+            words[offset + i] = 0L;
+        }
+
+        words[offset] = CodeEncoding.pack(game.getSecretCode()) | ((long) turns.size() << 12);
+        for (int i = 0; i < turns.size(); i++) {
+            var turn = turns.get(i);
+            var encodedTurn = CodeEncoding.pack(turn.getGuess())
+                    | ((long) turn.getResult().getBlackPins() << 12)
+                    | ((long) turn.getResult().getWhitePins() << 15);
+            words[offset + wordOf(i)] |= encodedTurn << shiftOf(i);
+        }
+    }
+
+    static Game decode(UUID id, long[] words, int offset) {
+        var header = words[offset];
+        var code = CodeEncoding.unpack((int) (header & CODE_MASK));
+        var numberOfTurns = (int) ((header >>> 12) & 0xF);
+
+        var turns = new ArrayList<Turn>(numberOfTurns);
+        for (int i = 0; i < numberOfTurns; i++) {
+            var encodedTurn = (words[offset + wordOf(i)] >>> shiftOf(i)) & TURN_MASK;
+            var guess = CodeEncoding.unpack((int) (encodedTurn & CODE_MASK));
+            var result = new Result((int) ((encodedTurn >>> 12) & PIN_COUNT_MASK), (int) ((encodedTurn >>> 15) & PIN_COUNT_MASK));
+            turns.add(new Turn(guess, result));
+        }
+        return Game.restore(id, code, turns);
+    }
+
+    // Reads the status from the last turn alone, so a store can filter on it without decoding the game.
+    static GameStatus statusOf(long[] words, int offset) {
+        var numberOfTurns = (int) ((words[offset] >>> 12) & 0xF);
+        if (numberOfTurns == 0) {
+            return GameStatus.IN_PROGRESS;
+        }
+        var lastTurn = numberOfTurns - 1;
+        var encodedTurn = (words[offset + wordOf(lastTurn)] >>> shiftOf(lastTurn)) & TURN_MASK;
+        if (((encodedTurn >>> 12) & PIN_COUNT_MASK) == PINS) {
+            return GameStatus.WON;
+        }
+        return numberOfTurns >= Game.MAX_TURNS ? GameStatus.LOST : GameStatus.IN_PROGRESS;
+    }
+
+    private static int wordOf(int turn) {
+        return turn < TURNS_IN_FIRST_WORD ? 0 : 1 + (turn - TURNS_IN_FIRST_WORD) / TURNS_PER_WORD;
+    }
+
+    private static int shiftOf(int turn) {
+        return turn < TURNS_IN_FIRST_WORD
+                ? HEADER_BITS + turn * TURN_BITS
+                : ((turn - TURNS_IN_FIRST_WORD) % TURNS_PER_WORD) * TURN_BITS;
+    }
+}
@@ -0,0 +1,41 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+
+import java.time.Duration;
+
+public class GameRetention {
+    public static final GameRetention KEEP_FOREVER = new GameRetention(Duration.ZERO, Duration.ZERO);
+
+    private static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+
+    private final Duration finishedTtl;
+    private final Duration idleTimeout;
+    private final Duration tick;
+
+    // Zero keeps the games forever.
+    public GameRetention(Duration finishedTtl, Duration idleTimeout) {
+        this(finishedTtl, idleTimeout, DEFAULT_TICK);
+    }
+
+    GameRetention(Duration finishedTtl, Duration idleTimeout, Duration tick) {
+        if (finishedTtl.isNegative() || idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("Retention periods can not be negative");
+        }
+        this.finishedTtl = finishedTtl;
+        this.idleTimeout = idleTimeout;
+        this.tick = tick;
+    }
+
+    boolean isEnabled() {
+        return !this.finishedTtl.isZero() || !this.idleTimeout.isZero();
+    }
+
+    Duration retentionOf(GameStatus status) {
+        return status == GameStatus.IN_PROGRESS ? this.idleTimeout : this.finishedTtl;
+    }
+
+    Duration getTick() {
+        return tick;
+    }
+}
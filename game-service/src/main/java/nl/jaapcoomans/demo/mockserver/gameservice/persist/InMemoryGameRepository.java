@@ -2,15 +2,57 @@ package nl.jaapcoomans.demo.mockserver.gameservice.persist;
 
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameRepository;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 public class InMemoryGameRepository implements GameRepository {
-    private final Map<UUID, Game> games = new HashMap<>();
+    private static final int WHEEL_SIZE = 4096;
+
+    private final ConcurrentNavigableMap<UUID, Game> games = new ConcurrentSkipListMap<>();
+    private final StatusIndex statusIndex = new StatusIndex();
+
+    private final GameRetention retention;
+    private final LongSupplier clock;
+    private final TimingWheel<UUID> expiryWheel;
+
+    private final LongAdder evictedFinishedGames = new LongAdder();
+    private final LongAdder evictedIdleGames = new LongAdder();
+
+    public InMemoryGameRepository() {
+        this(GameRetention.KEEP_FOREVER);
+    }
+
+    public InMemoryGameRepository(GameRetention retention) {
+        this(retention, System::currentTimeMillis);
+
+        if (retention.isEnabled()) {
+            var tickMillis = retention.getTick().toMillis();
+            var expiryThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "game-expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            expiryThread.scheduleAtFixedRate(this::expireGames, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    InMemoryGameRepository(GameRetention retention, LongSupplier clock) {
+        this.retention = retention;
+        this.clock = clock;
+        this.expiryWheel = new TimingWheel<>(retention.getTick(), WHEEL_SIZE, clock.getAsLong());
+    }
 
     @Override
     public Optional<Game> findById(UUID id) {
@@ -19,12 +61,83 @@ public class InMemoryGameRepository implements GameRepository {
 
     @Override
     public Game persist(Game game) {
-        this.games.put(game.getId(), game);
+        synchronized (game) {
+            this.games.put(game.getId(), game);
+            this.statusIndex.update(game.getId(), game.getStatus());
+            this.scheduleExpiry(game);
+        }
         return game;
     }
 
     @Override
     public List<Game> findAll() {
+        // Weakly consistent, not a point-in-time snapshot.
         return List.copyOf(this.games.values());
     }
+
+    @Override
+    public List<Game> findPage(PageRequest page) {
+        return Pages.slice(this.games, page)
+                .values().stream()
+                .limit(page.getLimit())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public List<Game> findByStatus(GameStatus status, PageRequest page) {
+        return Collections.unmodifiableList(this.statusIndex.findPage(status, page, this.games::get));
+    }
+
+    @Override
+    public long countByStatus(GameStatus status) {
+        return this.statusIndex.count(status);
+    }
+
+    public long getEvictedFinishedGames() {
+        return this.evictedFinishedGames.sum();
+    }
+
+    public long getEvictedIdleGames() {
+        return this.evictedIdleGames.sum();
+    }
+
+    public long size() {
+        return this.games.size();
+    }
+
+    private void scheduleExpiry(Game game) {
+        if (!this.retention.isEnabled()) {
+            return;
+        }
+
+        var retentionPeriod = this.retention.retentionOf(game.getStatus());
+        if (retentionPeriod.isZero()) {
+            this.expiryWheel.cancel(game.getId());
+        } else {
+            this.expiryWheel.schedule(game.getId(), retentionPeriod, this.clock.getAsLong());
+        }
+    }
+
+    void expireGames() {
+        this.expiryWheel.advance(this.clock.getAsLong(), this::evict);
+    }
+
+    private void evict(UUID gameId) {
+        var game = this.games.get(gameId);
+        if (game == null) {
+            return;
+        }
+        // A turn played after the deadline passed has scheduled the game again, under the same lock, and keeps it.
+        synchronized (game) {
+            if (this.expiryWheel.isScheduled(gameId) || !this.games.remove(gameId, game)) {
+                return;
+            }
+            this.statusIndex.remove(gameId);
+        }
+        if (game.getStatus() == GameStatus.IN_PROGRESS) {
+            this.evictedIdleGames.increment();
+        } else {
+            this.evictedFinishedGames.increment();
+        }
+    }
 }
@@ -0,0 +1,299 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+// Records of length, CRC32 and payload in memory-mapped segments, forced to disk by one flusher for all writers.
+class Journal implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(Journal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long lingerNanos;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Segment current;
+    private long appendedPosition;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = this.flushLock.newCondition();
+    private final Condition flushCompleted = this.flushLock.newCondition();
+    private long requestedPosition;
+    private long durablePosition;
+    private volatile boolean closed;
+
+    private final Thread flusher;
+
+    private final LongAdder appendedRecords = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+
+    Journal(Path directory, long firstSegment, int segmentSize, Duration groupCommitLinger) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.lingerNanos = groupCommitLinger.toNanos();
+        this.current = Segment.create(this.segmentPath(firstSegment), firstSegment, segmentSize);
+
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Returns the position the journal has to be durable up to for this record to survive.
+    long append(ByteBuffer payload) {
+        var recordSize = HEADER_SIZE + payload.remaining();
+        if (recordSize > this.segmentSize) {
+            throw new IllegalArgumentException("A record of " + recordSize + " bytes does not fit in a segment");
+        }
+
+        var crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        this.appendLock.lock();
+        try {
+            if (this.current.buffer.remaining() < recordSize) {
+                this.roll();
+            }
+            var buffer = this.current.buffer;
+            buffer.putInt(payload.remaining());
+            buffer.putInt((int) crc.getValue());
+            buffer.put(payload);
+
+            this.appendedRecords.increment();
+            this.appendedPosition += recordSize;
+            return this.appendedPosition;
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    void awaitDurable(long position) {
+        this.flushLock.lock();
+        try {
+            if (position > this.requestedPosition) {
+                this.requestedPosition = position;
+                this.flushRequested.signal();
+            }
+            while (this.durablePosition < position) {
+                if (this.closed) {
+                    throw new IllegalStateException("The journal was closed before the record was made durable");
+                }
+                this.flushCompleted.awaitUninterruptibly();
+            }
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    // Every record appended before the call is durable when it returns.
+    long rollSegment() {
+        this.appendLock.lock();
+        try {
+            this.roll();
+            return this.current.sequence;
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    void deleteSegmentsBefore(long sequence) throws IOException {
+        for (Path segment : segmentFiles(this.directory)) {
+            if (sequenceOf(segment) < sequence) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    long getAppendedRecords() {
+        return this.appendedRecords.sum();
+    }
+
+    long getFsyncs() {
+        return this.fsyncs.sum();
+    }
+
+    private void roll() {
+        try {
+            this.current.close();
+            var next = this.current.sequence + 1;
+            this.current = Segment.create(this.segmentPath(next), next, this.segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to roll the journal over to a new segment", e);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            this.flushLock.lock();
+            try {
+                while (!this.closed && this.requestedPosition <= this.durablePosition) {
+                    this.flushRequested.awaitUninterruptibly();
+                }
+                if (this.closed) {
+                    return;
+                }
+            } finally {
+                this.flushLock.unlock();
+            }
+
+            if (this.lingerNanos > 0) {
+                // Give writers that are about to append the chance to share this fsync.
+                LockSupport.parkNanos(this.lingerNanos);
+            }
+
+            long target;
+            Segment segment;
+            this.appendLock.lock();
+            try {
+                target = this.appendedPosition;
+                segment = this.current;
+            } finally {
+                this.appendLock.unlock();
+            }
+
+            try {
+                // Older segments were forced when they were rolled over.
+                segment.buffer.force();
+                this.fsyncs.increment();
+            } catch (RuntimeException e) {
+                LOG.error("Unable to force the journal to disk, retrying", e);
+                continue;
+            }
+
+            this.flushLock.lock();
+            try {
+                this.durablePosition = Math.max(this.durablePosition, target);
+                this.flushCompleted.signalAll();
+            } finally {
+                this.flushLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.appendLock.lock();
+        try {
+            this.current.close();
+            this.flushLock.lock();
+            try {
+                this.durablePosition = this.appendedPosition;
+                this.closed = true;
+                this.flushRequested.signalAll();
+                this.flushCompleted.signalAll();
+            } finally {
+                this.flushLock.unlock();
+            }
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return this.directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    // Returns the last segment found, or one less than fromSegment when there is none.
+    static long replay(Path directory, long fromSegment, Consumer<ByteBuffer> handler) throws IOException {
+        var lastSegment = fromSegment - 1;
+        if (!Files.isDirectory(directory)) {
+            return lastSegment;
+        }
+
+        for (Path segment : segmentFiles(directory)) {
+            var sequence = sequenceOf(segment);
+            if (sequence < fromSegment) {
+                continue;
+            }
+            lastSegment = sequence;
+
+            try (var channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                replaySegment(segment, buffer, handler);
+            }
+        }
+        return lastSegment;
+    }
+
+    private static void replaySegment(Path segment, ByteBuffer buffer, Consumer<ByteBuffer> handler) {
+        var crc = new CRC32();
+        while (buffer.remaining() >= HEADER_SIZE) {
+            var length = buffer.getInt();
+            var checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                return;
+            }
+
+            var payload = buffer.slice().limit(length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                LOG.warn("Ignoring the torn tail of journal segment {}", segment);
+                return;
+            }
+
+            handler.accept(payload);
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        var name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class Segment {
+        private final long sequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long sequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment create(Path path, long sequence, int size) throws IOException {
+            var channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(sequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        private void close() throws IOException {
+            this.buffer.force();
+            this.channel.close();
+        }
+    }
+}
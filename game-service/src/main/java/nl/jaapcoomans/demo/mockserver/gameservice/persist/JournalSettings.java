@@ -0,0 +1,35 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class JournalSettings {
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration groupCommitLinger;
+    private final Duration snapshotInterval;
+
+    // The linger is how long the flusher waits for more writers before it forces the journal to disk.
+    public JournalSettings(Path directory, int segmentSize, Duration groupCommitLinger, Duration snapshotInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.groupCommitLinger = groupCommitLinger;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    int getSegmentSize() {
+        return segmentSize;
+    }
+
+    Duration getGroupCommitLinger() {
+        return groupCommitLinger;
+    }
+
+    Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+}
@@ -0,0 +1,272 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameRepository;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Turn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.Collections;
+
+// Every change is in the journal before persist returns.
+public class JournalingGameRepository implements GameRepository, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(JournalingGameRepository.class);
+
+    private static final byte GAME_CREATED = 1;
+    private static final byte TURN_PLAYED = 2;
+    private static final int GAME_CREATED_SIZE = 1 + 2 * Long.BYTES + Short.BYTES;
+    private static final int TURN_PLAYED_SIZE = 1 + 2 * Long.BYTES + 1 + Short.BYTES + 2;
+
+    private final JournalSettings settings;
+    private final ConcurrentNavigableMap<UUID, JournaledGame> games = new ConcurrentSkipListMap<>();
+    private final StatusIndex statusIndex = new StatusIndex();
+    private final ScheduledExecutorService snapshotThread;
+
+    private Journal journal;
+    private long recoveryMillis;
+    private final LongAdder snapshotsWritten = new LongAdder();
+
+    private JournalingGameRepository(JournalSettings settings) {
+        this.settings = settings;
+        this.snapshotThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static JournalingGameRepository open(JournalSettings settings) throws IOException {
+        var repository = new JournalingGameRepository(settings);
+        repository.recover();
+
+        var interval = settings.getSnapshotInterval().toMillis();
+        repository.snapshotThread.scheduleWithFixedDelay(repository::snapshotQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        return repository;
+    }
+
+    @Override
+    public Optional<Game> findById(UUID id) {
+        return Optional.ofNullable(this.games.get(id)).map(journaled -> journaled.game);
+    }
+
+    @Override
+    public Game persist(Game game) {
+        var position = this.journal(game);
+        if (position > 0) {
+            this.journal.awaitDurable(position);
+        }
+        return game;
+    }
+
+    // All records of the batch are appended before waiting, so the whole batch shares a single fsync.
+    @Override
+    public void persistAll(List<Game> games) {
+        var position = 0L;
+        for (Game game : games) {
+            position = Math.max(position, this.journal(game));
+        }
+        if (position > 0) {
+            this.journal.awaitDurable(position);
+        }
+    }
+
+    private long journal(Game game) {
+        var journaled = this.games.computeIfAbsent(game.getId(), id -> new JournaledGame(game, -1));
+
+        long position;
+        journaled.lock.lock();
+        try {
+            journaled.game = game;
+            position = this.journalChanges(journaled);
+        } finally {
+            journaled.lock.unlock();
+        }
+        this.statusIndex.update(game.getId(), game.getStatus());
+        return position;
+    }
+
+    @Override
+    public List<Game> findAll() {
+        return this.games.values().stream()
+                .map(journaled -> journaled.game)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public List<Game> findPage(PageRequest page) {
+        return Pages.slice(this.games, page)
+                .values().stream()
+                .limit(page.getLimit())
+                .map(journaled -> journaled.game)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public List<Game> findByStatus(GameStatus status, PageRequest page) {
+        return Collections.unmodifiableList(this.statusIndex.findPage(status, page, this::gameOf));
+    }
+
+    @Override
+    public long countByStatus(GameStatus status) {
+        return this.statusIndex.count(status);
+    }
+
+    public long size() {
+        return this.games.size();
+    }
+
+    public long getAppendedRecords() {
+        return this.journal.getAppendedRecords();
+    }
+
+    public long getFsyncs() {
+        return this.journal.getFsyncs();
+    }
+
+    public long getSnapshotsWritten() {
+        return this.snapshotsWritten.sum();
+    }
+
+    public long getRecoveryMillis() {
+        return this.recoveryMillis;
+    }
+
+    private Game gameOf(UUID id) {
+        var journaled = this.games.get(id);
+        return journaled == null ? null : journaled.game;
+    }
+
+    private long journalChanges(JournaledGame journaled) {
+        var game = journaled.game;
+        var position = 0L;
+
+        if (journaled.journaledTurns < 0) {
+            var record = ByteBuffer.allocate(GAME_CREATED_SIZE)
+                    .put(GAME_CREATED)
+                    .putLong(game.getId().getMostSignificantBits())
+                    .putLong(game.getId().getLeastSignificantBits())
+                    .putShort((short) CodeEncoding.pack(game.getSecretCode()));
+            position = this.journal.append(record.flip());
+            journaled.journaledTurns = 0;
+        }
+
+        var turns = game.getTurns();
+        for (int index = journaled.journaledTurns; index < turns.size(); index++) {
+            var turn = turns.get(index);
+            var record = ByteBuffer.allocate(TURN_PLAYED_SIZE)
+                    .put(TURN_PLAYED)
+                    .putLong(game.getId().getMostSignificantBits())
+                    .putLong(game.getId().getLeastSignificantBits())
+                    .put((byte) index)
+                    .putShort((short) CodeEncoding.pack(turn.getGuess()))
+                    .put((byte) turn.getResult().getBlackPins())
+                    .put((byte) turn.getResult().getWhitePins());
+            position = this.journal.append(record.flip());
+        }
+        journaled.journaledTurns = turns.size();
+
+        return position;
+    }
+
+    private void recover() throws IOException {
+        var start = System.nanoTime();
+        var directory = this.settings.getDirectory();
+
+        var firstSegment = 0L;
+        var snapshot = Snapshots.latest(directory);
+        if (snapshot.isPresent()) {
+            firstSegment = Snapshots.journalSegmentOf(snapshot.get());
+            Snapshots.read(snapshot.get(), game ->
+                    this.games.put(game.getId(), new JournaledGame(game, game.getTurns().size())));
+        }
+
+        var lastSegment = Journal.replay(directory, firstSegment, this::apply);
+        this.games.forEach((id, journaled) -> this.statusIndex.update(id, journaled.game.getStatus()));
+        this.journal = new Journal(directory, lastSegment + 1,
+                this.settings.getSegmentSize(), this.settings.getGroupCommitLinger());
+
+        this.recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOG.info("Recovered {} games from {} in {} ms", this.games.size(), directory, this.recoveryMillis);
+    }
+
+    // Idempotent, the segment a snapshot starts at can hold changes the snapshot already has.
+    private void apply(ByteBuffer record) {
+        var type = record.get();
+        var id = new UUID(record.getLong(), record.getLong());
+
+        if (type == GAME_CREATED) {
+            var code = CodeEncoding.unpack(record.getShort() & 0xFFFF);
+            this.games.computeIfAbsent(id, key -> new JournaledGame(Game.restore(id, code, List.of()), 0));
+        } else if (type == TURN_PLAYED) {
+            var journaled = this.games.get(id);
+            var index = record.get();
+            if (journaled == null || journaled.journaledTurns != index) {
+                return;
+            }
+
+            var guess = CodeEncoding.unpack(record.getShort() & 0xFFFF);
+            var result = new Result(record.get(), record.get());
+            var turns = new ArrayList<>(journaled.game.getTurns());
+            turns.add(new Turn(guess, result));
+
+            journaled.game = Game.restore(id, journaled.game.getSecretCode(), turns);
+            journaled.journaledTurns = turns.size();
+        } else {
+            throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    void snapshot() throws IOException {
+        // Everything journaled before the roll is already applied to the games in memory, so the snapshot covers it.
+        var segment = this.journal.rollSegment();
+        Snapshots.write(this.settings.getDirectory(), segment, () -> this.games.values().stream()
+                .map(journaled -> journaled.game)
+                .iterator());
+        this.journal.deleteSegmentsBefore(segment);
+        this.snapshotsWritten.increment();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            this.snapshot();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Unable to write a snapshot of the games", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.snapshotThread.shutdown();
+        this.journal.close();
+    }
+
+    private static class JournaledGame {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Game game;
+        private int journaledTurns;
+
+        private JournaledGame(Game game, int journaledTurns) {
+            this.game = game;
+            this.journaledTurns = journaledTurns;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// An open addressing table of encoded games in a memory-mapped file, recreated on every start.
+class MappedGameStore implements Closeable {
+    private static final int WORDS_PER_SLOT = 2 + GameEncoding.WORDS;
+    private static final int SLOT_SIZE = WORDS_PER_SLOT * Long.BYTES;
+    private static final int SLOTS_PER_CHUNK_SHIFT = 20;
+    private static final int SLOTS_PER_CHUNK = 1 << SLOTS_PER_CHUNK_SHIFT;
+
+    private final Path directory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Table table;
+    private long size;
+    private final long[] gamesByStatus = new long[GameStatus.values().length];
+    private int generation;
+
+    MappedGameStore(Path directory, int initialCapacity) throws IOException {
+        if (Integer.bitCount(initialCapacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two, not " + initialCapacity);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.table = this.createTable(initialCapacity);
+    }
+
+    Game find(UUID id) {
+        this.lock.readLock().lock();
+        try {
+            var slot = this.table.find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (this.table.isFree(slot)) {
+                return null;
+            }
+            var words = new long[GameEncoding.WORDS];
+            this.table.readState(slot, words);
+            return GameEncoding.decode(id, words, 0);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // Returns the status of the stored game without decoding it, or null when the game is not stored.
+    GameStatus statusOf(UUID id) {
+        this.lock.readLock().lock();
+        try {
+            var slot = this.table.find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (this.table.isFree(slot)) {
+                return null;
+            }
+            var words = new long[GameEncoding.WORDS];
+            this.table.readState(slot, words);
+            return GameEncoding.statusOf(words, 0);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    void store(Game game) {
+        var words = new long[GameEncoding.WORDS];
+        GameEncoding.encode(game, words, 0);
+        var mostSignificantBits = game.getId().getMostSignificantBits();
+        var leastSignificantBits = game.getId().getLeastSignificantBits();
+
+        this.lock.writeLock().lock();
+        try {
+            if ((this.size + 1) * 2 > this.table.capacity) {
+                this.grow();
+            }
+            var slot = this.table.find(mostSignificantBits, leastSignificantBits);
+            if (this.table.isFree(slot)) {
+                this.size++;
+            } else {
+                var stored = new long[GameEncoding.WORDS];
+                this.table.readState(slot, stored);
+                this.gamesByStatus[GameEncoding.statusOf(stored, 0).ordinal()]--;
+            }
+            this.table.write(slot, mostSignificantBits, leastSignificantBits, words);
+            this.gamesByStatus[game.getStatus().ordinal()]++;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    void forEach(Consumer<Game> consumer) {
+        this.lock.readLock().lock();
+        try {
+            var words = new long[GameEncoding.WORDS];
+            for (long slot = 0; slot < this.table.capacity; slot++) {
+                if (!this.table.isFree(slot)) {
+                    this.table.readState(slot, words);
+                    consumer.accept(GameEncoding.decode(this.table.idOf(slot), words, 0));
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // Passes every id with a supplier that decodes its game, so callers only pay for decoding the games they need.
+    void scan(BiConsumer<UUID, Supplier<Game>> consumer) {
+        this.scan(EnumSet.allOf(GameStatus.class), consumer);
+    }
+
+    // Like scan, but skips the games with another status before creating their ids.
+    void scan(GameStatus status, BiConsumer<UUID, Supplier<Game>> consumer) {
+        this.scan(EnumSet.of(status), consumer);
+    }
+
+    private void scan(Set<GameStatus> statuses, BiConsumer<UUID, Supplier<Game>> consumer) {
+        this.lock.readLock().lock();
+        try {
+            var words = new long[GameEncoding.WORDS];
+            for (long slot = 0; slot < this.table.capacity; slot++) {
+                if (this.table.isFree(slot)) {
+                    continue;
+                }
+                this.table.readState(slot, words);
+                if (statuses.contains(GameEncoding.statusOf(words, 0))) {
+                    var id = this.table.idOf(slot);
+                    var game = slot;
+                    consumer.accept(id, () -> {
+                        var state = new long[GameEncoding.WORDS];
+                        this.table.readState(game, state);
+                        return GameEncoding.decode(id, state, 0);
+                    });
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    long count(GameStatus status) {
+        this.lock.readLock().lock();
+        try {
+            return this.gamesByStatus[status.ordinal()];
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    long size() {
+        this.lock.readLock().lock();
+        try {
+            return this.size;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    long fileSize() {
+        this.lock.readLock().lock();
+        try {
+            return this.table.capacity * SLOT_SIZE;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void grow() {
+        try {
+            var old = this.table;
+            var grown = this.createTable(old.capacity * 2);
+            var words = new long[GameEncoding.WORDS];
+            for (long slot = 0; slot < old.capacity; slot++) {
+                if (!old.isFree(slot)) {
+                    old.readState(slot, words);
+                    var mostSignificantBits = old.word(slot, 0);
+                    var leastSignificantBits = old.word(slot, 1);
+                    grown.write(grown.find(mostSignificantBits, leastSignificantBits), mostSignificantBits, leastSignificantBits, words);
+                }
+            }
+            this.table = grown;
+            old.delete();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to grow the cold game store", e);
+        }
+    }
+
+    private Table createTable(long capacity) throws IOException {
+        var path = this.directory.resolve(String.format("cold-games-%04d.dat", this.generation++));
+        return new Table(path, capacity);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            this.table.delete();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private static class Table {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer[] chunks;
+        private final long capacity;
+
+        private Table(Path path, long capacity) throws IOException {
+            this.path = path;
+            this.capacity = capacity;
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            var slotsPerChunk = Math.min(capacity, SLOTS_PER_CHUNK);
+            this.chunks = new MappedByteBuffer[(int) (capacity / slotsPerChunk)];
+            for (int i = 0; i < this.chunks.length; i++) {
+                this.chunks[i] = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                        i * slotsPerChunk * SLOT_SIZE, slotsPerChunk * SLOT_SIZE);
+            }
+        }
+
+        // Returns the slot holding the id, or the free slot where it should go.
+        private long find(long mostSignificantBits, long leastSignificantBits) {
+            var mask = this.capacity - 1;
+            for (long slot = bucketOf(mostSignificantBits, leastSignificantBits) & mask; ; slot = (slot + 1) & mask) {
+                if (this.isFree(slot)
+                        || (this.word(slot, 0) == mostSignificantBits && this.word(slot, 1) == leastSignificantBits)) {
+                    return slot;
+                }
+            }
+        }
+
+        private boolean isFree(long slot) {
+            return this.word(slot, 0) == 0L && this.word(slot, 1) == 0L;
+        }
+
+        private UUID idOf(long slot) {
+            return new UUID(this.word(slot, 0), this.word(slot, 1));
+        }
+
+        private void readState(long slot, long[] words) {
+            for (int i = 0; i < GameEncoding.WORDS; i++) {
+                words[i] = this.word(slot, 2 + i);
+            }
+        }
+
+        private void write(long slot, long mostSignificantBits, long leastSignificantBits, long[] words) {
+            var chunk = this.chunks[(int) (slot >>> SLOTS_PER_CHUNK_SHIFT)];
+            var offset = (int) (slot & (SLOTS_PER_CHUNK - 1)) * SLOT_SIZE;
+            for (int i = 0; i < GameEncoding.WORDS; i++) {
+                chunk.putLong(offset + (2 + i) * Long.BYTES, words[i]);
+            }
+            chunk.putLong(offset + Long.BYTES, leastSignificantBits);
+            chunk.putLong(offset, mostSignificantBits);
+        }
+
+        private long word(long slot, int word) {
+            var chunk = this.chunks[(int) (slot >>> SLOTS_PER_CHUNK_SHIFT)];
+            return chunk.getLong((int) (slot & (SLOTS_PER_CHUNK - 1)) * SLOT_SIZE + word * Long.BYTES);
+        }
+
+        private void delete() throws IOException {
+            this.channel.close();
+            Files.deleteIfExists(this.path);
+        }
+
+        private static long bucketOf(long mostSignificantBits, long leastSignificantBits) {
+            var hash = mostSignificantBits ^ leastSignificantBits;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Only the games that make it onto the page so far are materialized.
+class PageCollector {
+    private final PageRequest page;
+    private final PriorityQueue<Game> highestIdFirst =
+            new PriorityQueue<>(Comparator.comparing(Game::getId).reversed());
+
+    PageCollector(PageRequest page) {
+        this.page = page;
+    }
+
+    void offer(UUID id, Supplier<Game> game) {
+        if (!this.page.includes(id)) {
+            return;
+        }
+        if (this.highestIdFirst.size() < this.page.getLimit()) {
+            this.highestIdFirst.add(game.get());
+        } else if (id.compareTo(this.highestIdFirst.peek().getId()) < 0) {
+            this.highestIdFirst.poll();
+            this.highestIdFirst.add(game.get());
+        }
+    }
+
+    List<Game> result() {
+        var games = new ArrayList<>(this.highestIdFirst);
+        games.sort(Comparator.comparing(Game::getId));
+        return games;
+    }
+}
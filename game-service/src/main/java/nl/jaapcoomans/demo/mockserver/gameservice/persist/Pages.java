@@ -0,0 +1,22 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.UUID;
+
+final class Pages {
+    private Pages() {
+    }
+
+    static <V> NavigableMap<UUID, V> slice(NavigableMap<UUID, V> map, PageRequest page) {
+        var tail = page.getAfter().map(after -> map.tailMap(after, false)).orElse(map);
+        return page.getBefore().map(before -> tail.headMap(before, false)).orElse(tail);
+    }
+
+    static NavigableSet<UUID> slice(NavigableSet<UUID> set, PageRequest page) {
+        var tail = page.getAfter().map(after -> set.tailSet(after, false)).orElse(set);
+        return page.getBefore().map(before -> tail.headSet(before, false)).orElse(tail);
+    }
+}
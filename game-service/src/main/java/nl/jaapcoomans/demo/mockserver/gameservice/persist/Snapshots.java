@@ -0,0 +1,135 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Turn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Named after the first journal segment they do not cover, and renamed into place once complete.
+final class Snapshots {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int MAGIC = 0x4D4D5331;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private Snapshots() {
+    }
+
+    static void write(Path directory, long journalSegment, Iterable<Game> games) throws IOException {
+        var target = directory.resolve(String.format("%s%016d%s", SNAPSHOT_PREFIX, journalSegment, SNAPSHOT_SUFFIX));
+        var temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        try (var channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            var output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            output.writeInt(MAGIC);
+
+            var count = 0L;
+            for (Game game : games) {
+                writeGame(output, game);
+                count++;
+            }
+            output.writeLong(0L);
+            output.writeLong(0L);
+            output.writeLong(count);
+            output.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path snapshot : snapshotFiles(directory)) {
+            if (!snapshot.equals(target)) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    static Optional<Path> latest(Path directory) throws IOException {
+        var snapshots = snapshotFiles(directory);
+        return snapshots.isEmpty() ? Optional.empty() : Optional.of(snapshots.get(snapshots.size() - 1));
+    }
+
+    static long journalSegmentOf(Path snapshot) {
+        var name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    static void read(Path snapshot, Consumer<Game> consumer) throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), BUFFER_SIZE))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException(snapshot + " is not a game snapshot");
+            }
+
+            var count = 0L;
+            while (true) {
+                var mostSignificantBits = input.readLong();
+                var leastSignificantBits = input.readLong();
+                if (mostSignificantBits == 0L && leastSignificantBits == 0L) {
+                    break;
+                }
+                consumer.accept(readGame(input, new UUID(mostSignificantBits, leastSignificantBits)));
+                count++;
+            }
+
+            if (input.readLong() != count) {
+                throw new IOException(snapshot + " is incomplete");
+            }
+        }
+    }
+
+    private static void writeGame(DataOutputStream output, Game game) throws IOException {
+        var turns = game.getTurns();
+        output.writeLong(game.getId().getMostSignificantBits());
+        output.writeLong(game.getId().getLeastSignificantBits());
+        output.writeShort(CodeEncoding.pack(game.getSecretCode()));
+        output.writeByte(turns.size());
+        for (Turn turn : turns) {
+            output.writeShort(CodeEncoding.pack(turn.getGuess()));
+            output.writeByte(turn.getResult().getBlackPins());
+            output.writeByte(turn.getResult().getWhitePins());
+        }
+    }
+
+    private static Game readGame(DataInputStream input, UUID id) throws IOException {
+        var code = CodeEncoding.unpack(input.readUnsignedShort());
+        var numberOfTurns = input.readUnsignedByte();
+        var turns = new ArrayList<Turn>(numberOfTurns);
+        for (int i = 0; i < numberOfTurns; i++) {
+            var guess = CodeEncoding.unpack(input.readUnsignedShort());
+            turns.add(new Turn(guess, new Result(input.readUnsignedByte(), input.readUnsignedByte())));
+        }
+        return Game.restore(id, code, turns);
+    }
+
+    private static List<Path> snapshotFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(SNAPSHOT_PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
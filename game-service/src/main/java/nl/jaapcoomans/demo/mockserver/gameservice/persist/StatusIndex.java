@@ -0,0 +1,68 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Updates of one game must not run concurrently, the game service persists a game under its lock.
+class StatusIndex {
+    private final Map<GameStatus, NavigableSet<UUID>> ids = new EnumMap<>(GameStatus.class);
+    private final Map<GameStatus, LongAdder> counts = new EnumMap<>(GameStatus.class);
+
+    StatusIndex() {
+        for (GameStatus status : GameStatus.values()) {
+            this.ids.put(status, new ConcurrentSkipListSet<>());
+            this.counts.put(status, new LongAdder());
+        }
+    }
+
+    void update(UUID id, GameStatus status) {
+        for (GameStatus other : GameStatus.values()) {
+            if (other != status && this.ids.get(other).remove(id)) {
+                this.counts.get(other).decrement();
+            }
+        }
+        if (this.ids.get(status).add(id)) {
+            this.counts.get(status).increment();
+        }
+    }
+
+    void remove(UUID id) {
+        for (GameStatus status : GameStatus.values()) {
+            if (this.ids.get(status).remove(id)) {
+                this.counts.get(status).decrement();
+            }
+        }
+    }
+
+    long count(GameStatus status) {
+        return this.counts.get(status).sum();
+    }
+
+    // A game can change status or disappear between reading the index and looking it up, those games are skipped.
+    List<Game> findPage(GameStatus status, PageRequest page, Function<UUID, Game> lookup) {
+        var candidates = Pages.slice(this.ids.get(status), page);
+
+        var games = new ArrayList<Game>(page.getLimit());
+        for (UUID id : candidates) {
+            var game = lookup.apply(id);
+            if (game != null && game.getStatus() == status) {
+                games.add(game);
+                if (games.size() == page.getLimit()) {
+                    break;
+                }
+            }
+        }
+        return games;
+    }
+}
@@ -0,0 +1,227 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameRepository;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Finished and idle games are spilled to disk, a game that is played again moves back to the heap.
+public class TieredGameRepository implements GameRepository, Closeable {
+    private static final int WHEEL_SIZE = 4096;
+    private static final int LOCK_STRIPES = 256;
+    private static final int INITIAL_COLD_CAPACITY = 1 << 16;
+
+    private final ConcurrentMap<UUID, Game> hot = new ConcurrentHashMap<>();
+    private final MappedGameStore cold;
+
+    // Guards moving a game between the tiers against a persist of the same game.
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    private final Duration idleTimeout;
+    private final LongSupplier clock;
+    private final TimingWheel<UUID> idleWheel;
+    private final ScheduledExecutorService spillThread;
+
+    private final LongAdder spilledGames = new LongAdder();
+    private final LongAdder faultedGames = new LongAdder();
+
+    public TieredGameRepository(Path directory, Duration idleTimeout) throws IOException {
+        this(directory, idleTimeout, System::currentTimeMillis);
+
+        var tickMillis = this.tickOf(idleTimeout).toMillis();
+        this.spillThread.scheduleAtFixedRate(this::spillIdleGames, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    TieredGameRepository(Path directory, Duration idleTimeout, LongSupplier clock) throws IOException {
+        this.cold = new MappedGameStore(directory, INITIAL_COLD_CAPACITY);
+        this.idleTimeout = idleTimeout;
+        this.clock = clock;
+        this.idleWheel = new TimingWheel<>(this.tickOf(idleTimeout), WHEEL_SIZE, clock.getAsLong());
+        this.spillThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "game-spill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Optional<Game> findById(UUID id) {
+        var game = this.hot.get(id);
+        if (game != null) {
+            return Optional.of(game);
+        }
+
+        game = this.cold.find(id);
+        if (game == null) {
+            return Optional.empty();
+        }
+        this.faultedGames.increment();
+
+        if (game.getStatus() == GameStatus.IN_PROGRESS) {
+            var lock = this.lockOf(id);
+            lock.lock();
+            try {
+                var current = this.hot.putIfAbsent(id, game);
+                if (current != null) {
+                    return Optional.of(current);
+                }
+                this.idleWheel.schedule(id, this.idleTimeout, this.clock.getAsLong());
+            } finally {
+                lock.unlock();
+            }
+        }
+        return Optional.of(game);
+    }
+
+    @Override
+    public Game persist(Game game) {
+        var id = game.getId();
+        var lock = this.lockOf(id);
+        lock.lock();
+        try {
+            if (game.getStatus() == GameStatus.IN_PROGRESS) {
+                this.hot.put(id, game);
+                this.idleWheel.schedule(id, this.idleTimeout, this.clock.getAsLong());
+            } else {
+                this.cold.store(game);
+                this.hot.remove(id);
+                this.idleWheel.cancel(id);
+                this.spilledGames.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return game;
+    }
+
+    @Override
+    public List<Game> findAll() {
+        var games = new ArrayList<>(this.hot.values());
+        // A game faulted back in can still have a stale copy in the cold store, the one on the heap is leading.
+        this.cold.forEach(game -> {
+            if (!this.hot.containsKey(game.getId())) {
+                games.add(game);
+            }
+        });
+        return Collections.unmodifiableList(games);
+    }
+
+    @Override
+    public List<Game> findPage(PageRequest page) {
+        var collector = new PageCollector(page);
+        this.hot.forEach((id, game) -> collector.offer(id, () -> game));
+        this.cold.scan((id, game) -> {
+            if (!this.hot.containsKey(id)) {
+                collector.offer(id, game);
+            }
+        });
+        return Collections.unmodifiableList(collector.result());
+    }
+
+    @Override
+    public List<Game> findByStatus(GameStatus status, PageRequest page) {
+        var collector = new PageCollector(page);
+        this.hot.forEach((id, game) -> {
+            if (game.getStatus() == status) {
+                collector.offer(id, () -> game);
+            }
+        });
+        this.cold.scan(status, (id, game) -> {
+            if (!this.hot.containsKey(id)) {
+                collector.offer(id, game);
+            }
+        });
+        return Collections.unmodifiableList(collector.result());
+    }
+
+    // The cold store counts its games by status; only the games on the heap are looked at one by one.
+    @Override
+    public long countByStatus(GameStatus status) {
+        var count = this.cold.count(status);
+        for (var entry : this.hot.entrySet()) {
+            if (entry.getValue().getStatus() == status) {
+                count++;
+            }
+            if (this.cold.statusOf(entry.getKey()) == status) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    public long getHotGames() {
+        return this.hot.size();
+    }
+
+    public long getColdGames() {
+        return this.cold.size();
+    }
+
+    public long getColdStoreBytes() {
+        return this.cold.fileSize();
+    }
+
+    public long getSpilledGames() {
+        return this.spilledGames.sum();
+    }
+
+    public long getFaultedGames() {
+        return this.faultedGames.sum();
+    }
+
+    void spillIdleGames() {
+        this.idleWheel.advance(this.clock.getAsLong(), this::spill);
+    }
+
+    private void spill(UUID id) {
+        var lock = this.lockOf(id);
+        lock.lock();
+        try {
+            var game = this.hot.get(id);
+            if (game == null) {
+                return;
+            }
+            this.cold.store(game);
+            this.hot.remove(id);
+            this.spilledGames.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockOf(UUID id) {
+        return this.locks[(id.hashCode() & 0x7FFFFFFF) % LOCK_STRIPES];
+    }
+
+    private Duration tickOf(Duration idleTimeout) {
+        // Spilling a little late is harmless, so the wheel does not need to tick more than a hundred times per timeout.
+        return Duration.ofMillis(Math.max(10, idleTimeout.toMillis() / 100));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.spillThread.shutdown();
+        this.cold.close();
+    }
+}
@@ -0,0 +1,158 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+// A hashed timing wheel with a single entry per key, however often it is rescheduled.
+class TimingWheel<K> {
+    private static final long NOT_QUEUED = -1;
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final List<Queue<Entry<K>>> buckets;
+    private final ConcurrentMap<K, Entry<K>> entries = new ConcurrentHashMap<>();
+
+    // Written by the single thread that advances the wheel, read by the threads that schedule.
+    private volatile long currentTick;
+
+    TimingWheel(Duration tick, int wheelSize, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("The wheel size must be a power of two, not " + wheelSize);
+        }
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.startMillis = startMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            this.buckets.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    void schedule(K key, Duration delay, long nowMillis) {
+        var deadlineTick = Math.max(tickOf(nowMillis + delay.toMillis()), this.currentTick + 1);
+        while (true) {
+            var entry = this.entries.computeIfAbsent(key, Entry::new);
+            synchronized (entry) {
+                // Expired or cancelled since it was looked up, the key needs a new entry.
+                if (entry.removed) {
+                    continue;
+                }
+                entry.deadlineTick = deadlineTick;
+                if (entry.queuedTick == NOT_QUEUED) {
+                    this.enqueue(entry, deadlineTick);
+                } else if (deadlineTick < entry.queuedTick) {
+                    this.bucketOf(entry.queuedTick).remove(entry);
+                    this.enqueue(entry, deadlineTick);
+                }
+                return;
+            }
+        }
+    }
+
+    void cancel(K key) {
+        var entry = this.entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (!entry.removed) {
+                this.remove(entry);
+                if (entry.queuedTick != NOT_QUEUED) {
+                    this.bucketOf(entry.queuedTick).remove(entry);
+                }
+            }
+        }
+    }
+
+    boolean isScheduled(K key) {
+        return this.entries.containsKey(key);
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    int queuedEntries() {
+        var queued = 0;
+        for (Queue<Entry<K>> bucket : this.buckets) {
+            queued += bucket.size();
+        }
+        return queued;
+    }
+
+    // Must only be called from one thread at a time.
+    int advance(long nowMillis, Consumer<K> onExpiry) {
+        var targetTick = tickOf(nowMillis);
+        var expired = 0;
+        while (this.currentTick < targetTick) {
+            var tick = this.currentTick + 1;
+            expired += expireBucket(tick, onExpiry);
+            this.currentTick = tick;
+        }
+        return expired;
+    }
+
+    private int expireBucket(long tick, Consumer<K> onExpiry) {
+        var expired = 0;
+        var iterator = this.buckets.get((int) (tick & this.mask)).iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            boolean expire;
+            synchronized (entry) {
+                // Left for a later revolution, or already moved to another bucket or removed by a reschedule.
+                if (entry.removed || entry.queuedTick != tick) {
+                    continue;
+                }
+                iterator.remove();
+                expire = entry.deadlineTick <= tick;
+                if (expire) {
+                    this.remove(entry);
+                } else {
+                    this.enqueue(entry, entry.deadlineTick);
+                }
+            }
+            if (expire) {
+                onExpiry.accept(entry.key);
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    private void enqueue(Entry<K> entry, long tick) {
+        entry.queuedTick = tick;
+        this.bucketOf(tick).add(entry);
+    }
+
+    private void remove(Entry<K> entry) {
+        entry.removed = true;
+        this.entries.remove(entry.key, entry);
+    }
+
+    private Queue<Entry<K>> bucketOf(long tick) {
+        return this.buckets.get((int) (tick & this.mask));
+    }
+
+    private long tickOf(long millis) {
+        return Math.max(0, millis - this.startMillis) / this.tickMillis;
+    }
+
+    // Guarded by its own monitor, which is only held for a few field updates and never while blocking.
+    private static class Entry<K> {
+        private final K key;
+        private long deadlineTick;
+        private long queuedTick = NOT_QUEUED;
+        private boolean removed;
+
+        private Entry(K key) {
+            this.key = key;
+        }
+    }
+}
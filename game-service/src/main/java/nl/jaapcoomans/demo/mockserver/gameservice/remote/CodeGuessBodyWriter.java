@@ -0,0 +1,26 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.CodeCodec;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.JsonWriter;
+
+import java.io.IOException;
+
+class CodeGuessBodyWriter implements JsonWriter<CodeGuessBody> {
+    private static final SerializableString ACTUAL = new SerializedString("actual");
+    private static final SerializableString GUESS = new SerializedString("guess");
+
+    private final CodeCodec codeCodec = new CodeCodec();
+
+    @Override
+    public void write(CodeGuessBody body, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ACTUAL);
+        this.codeCodec.write(body.getActual(), generator);
+        generator.writeFieldName(GUESS);
+        this.codeCodec.write(body.getGuess(), generator);
+        generator.writeEndObject();
+    }
+}
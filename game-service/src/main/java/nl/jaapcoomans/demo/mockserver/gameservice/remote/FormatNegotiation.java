@@ -0,0 +1,33 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+
+// Bodies switch to the preferred format only once the remote has answered in it.
+class FormatNegotiation {
+    private final DataFormat preferred;
+    private final String accept;
+
+    private volatile boolean confirmed;
+
+    FormatNegotiation(DataFormat preferred) {
+        this.preferred = preferred;
+        this.accept = preferred == DataFormat.JSON
+                ? DataFormat.JSON.getMediaType()
+                : preferred.getMediaType() + ", " + DataFormat.JSON.getMediaType() + ";q=0.5";
+        this.confirmed = preferred == DataFormat.JSON;
+    }
+
+    String getAccept() {
+        return this.accept;
+    }
+
+    DataFormat getRequestFormat() {
+        return this.confirmed ? this.preferred : DataFormat.JSON;
+    }
+
+    void onResponse(DataFormat format) {
+        if (format == this.preferred) {
+            this.confirmed = true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import feign.FeignException;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormats;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// The empty answers of a 404 or 204, and JSON without a codec, go to the fallback decoder.
+class JsonCodecsDecoder implements Decoder {
+    private final DataFormats formats;
+    private final FormatNegotiation negotiation;
+    private final Decoder fallback;
+
+    JsonCodecsDecoder(DataFormats formats, FormatNegotiation negotiation, Decoder fallback) {
+        this.formats = formats;
+        this.negotiation = negotiation;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException, FeignException {
+        if (response.status() == 404 || response.status() == 204 || response.body() == null) {
+            return this.fallback.decode(response, type);
+        }
+
+        var format = contentTypeOf(response);
+        this.negotiation.onResponse(format);
+        var codecs = this.formats.codecsFor(format);
+
+        if (type instanceof Class && (format != DataFormat.JSON || codecs.hasReaderFor((Class<?>) type))) {
+            try (var body = response.body().asInputStream()) {
+                return codecs.fromJson(body, (Class<?>) type);
+            }
+        }
+        var elementType = listElementType(type);
+        if (elementType != null && (format != DataFormat.JSON || codecs.hasReaderFor(elementType))) {
+            try (var body = response.body().asInputStream()) {
+                return codecs.listFromJson(body, elementType);
+            }
+        }
+        if (format != DataFormat.JSON) {
+            throw new DecodeException(response.status(), "Cannot read a " + type + " from " + format, response.request());
+        }
+        return this.fallback.decode(response, type);
+    }
+
+    private static DataFormat contentTypeOf(Response response) {
+        var contentType = response.headers().entrySet().stream()
+                .filter(header -> "Content-Type".equalsIgnoreCase(header.getKey()))
+                .flatMap(header -> header.getValue().stream())
+                .findFirst();
+        return contentType.flatMap(DataFormat::ofContentType).orElse(DataFormat.JSON);
+    }
+
+    private static Class<?> listElementType(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return null;
+        }
+        var parameterized = (ParameterizedType) type;
+        var element = parameterized.getActualTypeArguments()[0];
+        return parameterized.getRawType() == List.class && element instanceof Class ? (Class<?>) element : null;
+    }
+}
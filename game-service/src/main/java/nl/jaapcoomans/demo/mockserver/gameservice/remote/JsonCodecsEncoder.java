@@ -0,0 +1,32 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormats;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+class JsonCodecsEncoder implements Encoder {
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    private final DataFormats formats;
+    private final FormatNegotiation negotiation;
+
+    JsonCodecsEncoder(DataFormats formats, FormatNegotiation negotiation) {
+        this.formats = formats;
+        this.negotiation = negotiation;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) {
+        var format = this.negotiation.getRequestFormat();
+        var body = this.formats.codecsFor(format).toJsonBytes(object);
+        if (format == DataFormat.JSON) {
+            template.body(body, StandardCharsets.UTF_8);
+        } else {
+            template.removeHeader(CONTENT_TYPE).header(CONTENT_TYPE, format.getMediaType()).body(body, null);
+        }
+    }
+}
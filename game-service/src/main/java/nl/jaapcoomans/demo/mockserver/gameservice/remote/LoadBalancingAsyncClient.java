@@ -0,0 +1,186 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// The less busy of two random instances; an instance that keeps failing is ejected until it passes a probe.
+public class LoadBalancingAsyncClient implements AsyncClient<Object> {
+    private final AsyncClient<Object> delegate;
+    private final String targetUrl;
+    private final Endpoint[] endpoints;
+    private final int ejectAfterFailures;
+    private final long ejectionMillis;
+    private final LongSupplier clock;
+
+    private final LongAdder ejections = new LongAdder();
+    private final LongAdder readmissions = new LongAdder();
+
+    // Feign requests the first URL, which is replaced by the chosen instance.
+    LoadBalancingAsyncClient(AsyncClient<Object> delegate, List<String> urls, int ejectAfterFailures, Duration ejection) {
+        this(delegate, urls, ejectAfterFailures, ejection, System::currentTimeMillis);
+    }
+
+    LoadBalancingAsyncClient(AsyncClient<Object> delegate, List<String> urls, int ejectAfterFailures, Duration ejection,
+                             LongSupplier clock) {
+        if (urls.isEmpty() || ejectAfterFailures < 1) {
+            throw new IllegalArgumentException("At least one URL is needed, and at least one failure before an ejection");
+        }
+        this.delegate = delegate;
+        this.targetUrl = urls.get(0);
+        this.endpoints = urls.stream().map(Endpoint::new).toArray(Endpoint[]::new);
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectionMillis = ejection.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options, Optional<Object> requestContext) {
+        var endpoint = this.choose();
+        endpoint.outstanding.incrementAndGet();
+
+        CompletableFuture<Response> response;
+        try {
+            response = this.delegate.execute(endpoint.rewrite(request, this.targetUrl), options, requestContext);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((answer, e) -> {
+            endpoint.outstanding.decrementAndGet();
+            if (e == null && answer.status() < 500) {
+                this.onSuccess(endpoint);
+            } else {
+                this.onFailure(endpoint);
+            }
+        });
+    }
+
+    Endpoint choose() {
+        var now = this.clock.getAsLong();
+        var available = new ArrayList<Endpoint>(this.endpoints.length);
+        for (Endpoint endpoint : this.endpoints) {
+            // An instance whose ejection has ended is probed first, so it is re-admitted as soon as it is back.
+            if (endpoint.tryStartProbe(now)) {
+                return endpoint;
+            }
+            if (!endpoint.isEjected()) {
+                available.add(endpoint);
+            }
+        }
+
+        if (available.isEmpty()) {
+            return leastBusyOfTwo(List.of(this.endpoints));
+        }
+        return leastBusyOfTwo(available);
+    }
+
+    private static Endpoint leastBusyOfTwo(List<Endpoint> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        var random = ThreadLocalRandom.current();
+        var first = random.nextInt(candidates.size());
+        var second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        var a = candidates.get(first);
+        var b = candidates.get(second);
+        return a.outstanding.get() <= b.outstanding.get() ? a : b;
+    }
+
+    private void onSuccess(Endpoint endpoint) {
+        synchronized (endpoint) {
+            endpoint.consecutiveFailures = 0;
+            if (endpoint.ejectedUntil != 0) {
+                endpoint.ejectedUntil = 0;
+                endpoint.probing = false;
+                this.readmissions.increment();
+            }
+        }
+    }
+
+    // A request that was sent before the instance was ejected can still fail afterwards, that does not extend the ejection.
+    private void onFailure(Endpoint endpoint) {
+        synchronized (endpoint) {
+            if (endpoint.probing) {
+                endpoint.probing = false;
+                endpoint.ejectedUntil = this.clock.getAsLong() + this.ejectionMillis;
+            } else if (endpoint.ejectedUntil == 0 && ++endpoint.consecutiveFailures >= this.ejectAfterFailures) {
+                endpoint.consecutiveFailures = 0;
+                endpoint.ejectedUntil = this.clock.getAsLong() + this.ejectionMillis;
+                this.ejections.increment();
+            }
+        }
+    }
+
+    public int getEndpoints() {
+        return this.endpoints.length;
+    }
+
+    public int getHealthyEndpoints() {
+        var healthy = 0;
+        for (Endpoint endpoint : this.endpoints) {
+            if (!endpoint.isEjected()) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    public long getEjections() {
+        return this.ejections.sum();
+    }
+
+    public long getReadmissions() {
+        return this.readmissions.sum();
+    }
+
+    static class Endpoint {
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private int consecutiveFailures;
+        // Zero while the instance is healthy, otherwise the time at which it may be probed.
+        private long ejectedUntil;
+        private boolean probing;
+
+        private Endpoint(String url) {
+            this.url = url;
+        }
+
+        private synchronized boolean isEjected() {
+            return this.ejectedUntil != 0;
+        }
+
+        private synchronized boolean tryStartProbe(long now) {
+            if (this.ejectedUntil == 0 || this.probing || now < this.ejectedUntil) {
+                return false;
+            }
+            this.probing = true;
+            return true;
+        }
+
+        private Request rewrite(Request request, String targetUrl) {
+            if (this.url.equals(targetUrl) || !request.url().startsWith(targetUrl)) {
+                return request;
+            }
+            return Request.create(request.httpMethod(), this.url + request.url().substring(targetUrl.length()),
+                    request.headers(), request.body(), request.charset(), request.requestTemplate());
+        }
+
+        String getUrl() {
+            return this.url;
+        }
+    }
+}
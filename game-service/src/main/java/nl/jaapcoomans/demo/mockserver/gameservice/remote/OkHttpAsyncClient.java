@@ -0,0 +1,94 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// The timeouts are those of the OkHttp client, the options of the request are not used.
+class OkHttpAsyncClient implements AsyncClient<Object> {
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final OkHttpClient delegate;
+
+    OkHttpAsyncClient(OkHttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options, Optional<Object> requestContext) {
+        var future = new CompletableFuture<Response>();
+        var call = this.delegate.newCall(toOkHttpRequest(request));
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(errorExecuting(request, e));
+            }
+
+            @Override
+            public void onResponse(Call call, okhttp3.Response response) {
+                try (response) {
+                    future.complete(toFeignResponse(request, response));
+                } catch (IOException e) {
+                    future.completeExceptionally(errorExecuting(request, e));
+                }
+            }
+        });
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    // The same exception a blocking Feign client throws when the request could not be executed.
+    private static RetryableException errorExecuting(Request request, IOException e) {
+        var message = String.format("%s executing %s %s", e.getMessage(), request.httpMethod(), request.url());
+        return new RetryableException(-1, message, request.httpMethod(), e, null, request);
+    }
+
+    private static okhttp3.Request toOkHttpRequest(Request request) {
+        var builder = new okhttp3.Request.Builder().url(request.url());
+
+        MediaType mediaType = null;
+        for (var header : request.headers().entrySet()) {
+            for (String value : header.getValue()) {
+                if ("Content-Type".equalsIgnoreCase(header.getKey())) {
+                    mediaType = MediaType.parse(value);
+                }
+                builder.addHeader(header.getKey(), value);
+            }
+        }
+
+        var method = request.httpMethod();
+        var body = request.body();
+        if (body == null && (method == Request.HttpMethod.POST || method == Request.HttpMethod.PUT || method == Request.HttpMethod.PATCH)) {
+            body = EMPTY_BODY;
+        }
+        return builder.method(method.name(), body == null ? null : RequestBody.create(mediaType, body)).build();
+    }
+
+    // The body is read here, on the thread of OkHttp, so decoding it never blocks on the network.
+    private static Response toFeignResponse(Request request, okhttp3.Response response) throws IOException {
+        var body = response.body();
+        return Response.builder()
+                .request(request)
+                .status(response.code())
+                .reason(response.message())
+                .headers(new HashMap<String, Collection<String>>(response.headers().toMultimap()))
+                .body(body == null ? null : body.bytes())
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+// No results means no batch endpoint, the caller falls back to guarded single calls.
+class RemoteCodeCheckerClient implements CodeChecker {
+    private final RemoteServiceClientFactory.RemoteCodeChecker remote;
+
+    RemoteCodeCheckerClient(RemoteServiceClientFactory.RemoteCodeChecker remote) {
+        this.remote = remote;
+    }
+
+    @Override
+    public Result checkCode(Code code, Code guess) {
+        return RemoteServiceClientFactory.await(this.checkCodeAsync(code, guess));
+    }
+
+    @Override
+    public CompletableFuture<Result> checkCodeAsync(Code code, Code guess) {
+        return this.remote.checkCode(new CodeGuessBody(code, guess)).thenApply(ResultResponse::toResult);
+    }
+
+    @Override
+    public CompletableFuture<List<Result>> checkCodesAsync(List<Code> codes, List<Code> guesses) {
+        var bodies = new ArrayList<CodeGuessBody>(codes.size());
+        for (int i = 0; i < codes.size(); i++) {
+            bodies.add(new CodeGuessBody(codes.get(i), guesses.get(i)));
+        }
+        return this.remote.checkCodes(bodies).thenApply(responses -> {
+            if (responses == null || responses.isEmpty()) {
+                return List.of();
+            }
+            if (responses.size() != codes.size()) {
+                throw new IllegalStateException("The code checker answered " + responses.size()
+                        + " results for " + codes.size() + " guesses");
+            }
+            return responses.stream()
+                    .map(ResultResponse::toResult)
+                    .collect(Collectors.toList());
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeGenerator;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// No codes means no batch endpoint, the caller falls back to guarded single calls.
+class RemoteCodeGeneratorClient implements CodeGenerator {
+    private final RemoteServiceClientFactory.RemoteCodeGenerator remote;
+
+    RemoteCodeGeneratorClient(RemoteServiceClientFactory.RemoteCodeGenerator remote) {
+        this.remote = remote;
+    }
+
+    @Override
+    public Code generateCode() {
+        return RemoteServiceClientFactory.await(this.generateCodeAsync());
+    }
+
+    @Override
+    public CompletableFuture<Code> generateCodeAsync() {
+        return this.remote.generateCode();
+    }
+
+    @Override
+    public List<Code> generateCodes(int count) {
+        return RemoteServiceClientFactory.await(this.generateCodesAsync(count));
+    }
+
+    @Override
+    public CompletableFuture<List<Code>> generateCodesAsync(int count) {
+        return this.remote.generateCodes(count).handle((codes, e) -> {
+            if (e != null && !isMisshapen(e)) {
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+            // A generator that ignores the count answers a single code, or as many codes as it likes.
+            if (e != null || codes == null || codes.size() != count) {
+                return List.of();
+            }
+            return codes;
+        });
+    }
+
+    private static boolean isMisshapen(Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonProcessingException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,104 +1,176 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.remote;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import feign.Feign;
+import feign.AsyncFeign;
 import feign.Headers;
-import feign.Logger;
 import feign.Param;
+import feign.Request;
 import feign.RequestLine;
 import feign.jackson.JacksonDecoder;
-import feign.jackson.JacksonEncoder;
 import feign.slf4j.Slf4jLogger;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeGenerator;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.TournamentService;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormats;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.Deadline;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class RemoteServiceClientFactory {
-    private static final String ENV_GENERATOR_URL = "GENERATOR_URL";
-    private static final String ENV_CHECKER_URL = "CHECKER_URL";
-    private static final String ENV_TOURNAMENT_SVC_URL = "TOURNAMENT_SVC_URL";
+    private static final String ENV_GENERATOR = "GENERATOR";
+    private static final String ENV_CHECKER = "CHECKER";
+    private static final String ENV_TOURNAMENT_SVC = "TOURNAMENT_SVC";
 
     private static final String DEFAULT_GENERATOR_URL = "http://localhost:8081";
     private static final String DEFAULT_CHECKER_URL = "http://localhost:8082";
     private static final String DEFAULT_TOURNAMENT_SVC_URL = "http://localhost:8083";
 
-    private ObjectMapper objectMapper;
+    private final DataFormats formats;
 
-    private final String codeGeneratorUrl;
-    private final String codeCheckerUrl;
-    private final String tournamentServiceUrl;
+    // Every remote gets its own connection pool, dispatcher and timeouts, but they share the rest of the setup.
+    private final okhttp3.OkHttpClient baseClient = new okhttp3.OkHttpClient();
 
-    public RemoteServiceClientFactory(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    // Runs the calls that are in flight, or null to let OkHttp start platform threads for them.
+    private final ExecutorService callExecutor;
 
-        this.codeGeneratorUrl = getEnvOrDefault(ENV_GENERATOR_URL, DEFAULT_GENERATOR_URL);
-        this.codeCheckerUrl = getEnvOrDefault(ENV_CHECKER_URL, DEFAULT_CHECKER_URL);
-        this.tournamentServiceUrl = getEnvOrDefault(ENV_TOURNAMENT_SVC_URL, DEFAULT_TOURNAMENT_SVC_URL);
+    private final RemoteServiceSettings codeGenerator;
+    private final RemoteServiceSettings codeChecker;
+    private final RemoteServiceSettings tournamentService;
+
+    private final LoadBalancingAsyncClient codeGeneratorInstances;
+    private final LoadBalancingAsyncClient codeCheckerInstances;
+    private final LoadBalancingAsyncClient tournamentServiceInstances;
+
+    public RemoteServiceClientFactory(DataFormats formats) {
+        this(formats, null);
     }
 
-    private static String getEnvOrDefault(String variable, String defaultValue) {
-        var value = System.getenv(variable);
-        if (value != null) {
-            return value;
-        } else {
-            return defaultValue;
-        }
+    public RemoteServiceClientFactory(DataFormats formats, ExecutorService callExecutor) {
+        this(formats, callExecutor,
+                RemoteServiceSettings.fromEnvironment(ENV_GENERATOR, DEFAULT_GENERATOR_URL),
+                RemoteServiceSettings.fromEnvironment(ENV_CHECKER, DEFAULT_CHECKER_URL),
+                RemoteServiceSettings.fromEnvironment(ENV_TOURNAMENT_SVC, DEFAULT_TOURNAMENT_SVC_URL));
     }
 
-    public CodeGenerator createCodeGeneratorClient() {
-        var remote = Feign.builder()
-                .encoder(new JacksonEncoder(objectMapper))
-                .decoder(new JacksonDecoder(objectMapper))
-                .decode404()
-                .logger(new Slf4jLogger())
-                .logLevel(Logger.Level.FULL)
-                .target(RemoteCodeGenerator.class, this.codeGeneratorUrl);
+    RemoteServiceClientFactory(DataFormats formats, ExecutorService callExecutor, RemoteServiceSettings codeGenerator,
+                               RemoteServiceSettings codeChecker, RemoteServiceSettings tournamentService) {
+        this.formats = formats
+                .registerWriter(CodeGuessBody.class, new CodeGuessBodyWriter())
+                .register(ResultResponse.class, new ResultResponseCodec());
+        this.callExecutor = callExecutor;
+        this.codeGenerator = codeGenerator;
+        this.codeChecker = codeChecker;
+        this.tournamentService = tournamentService;
+
+        this.codeGeneratorInstances = this.createLoadBalancer(codeGenerator);
+        this.codeCheckerInstances = this.createLoadBalancer(codeChecker);
+        this.tournamentServiceInstances = this.createLoadBalancer(tournamentService);
+    }
 
-        return remote::generateCode;
+    public CodeGenerator createCodeGeneratorClient() {
+        return new RemoteCodeGeneratorClient(
+                this.createClient(RemoteCodeGenerator.class, this.codeGenerator, this.codeGeneratorInstances));
     }
 
     public CodeChecker createCodeCheckerClient() {
-        var remote = Feign.builder()
-                .encoder(new JacksonEncoder(objectMapper))
-                .decoder(new JacksonDecoder(objectMapper))
-                .decode404()
-                .logger(new Slf4jLogger())
-                .logLevel(Logger.Level.FULL)
-                .target(RemoteCodeChecker.class, this.codeCheckerUrl);
-
-        return (code, guess) -> remote.checkCode(new CodeGuessBody(code, guess)).toResult();
+        return new RemoteCodeCheckerClient(
+                this.createClient(RemoteCodeChecker.class, this.codeChecker, this.codeCheckerInstances));
     }
 
     public TournamentService createTournamentServiceClient() {
-        var remote = Feign.builder()
-                .encoder(new JacksonEncoder(objectMapper))
-                .decoder(new JacksonDecoder(objectMapper))
-                .decode404()
-                .logger(new Slf4jLogger())
-                .logLevel(Logger.Level.FULL)
-                .target(RemoteTournamentService.class, this.tournamentServiceUrl);
+        return new RemoteTournamentServiceClient(
+                this.createClient(RemoteTournamentService.class, this.tournamentService, this.tournamentServiceInstances));
+    }
 
-        return (gameId, result, guesses) -> remote.gameEnded(gameId, new GameEndedBody(gameId, result, guesses));
+    public LoadBalancingAsyncClient getCodeGeneratorInstances() {
+        return this.codeGeneratorInstances;
     }
 
-    interface RemoteCodeGenerator {
+    public LoadBalancingAsyncClient getCodeCheckerInstances() {
+        return this.codeCheckerInstances;
+    }
+
+    public LoadBalancingAsyncClient getTournamentServiceInstances() {
+        return this.tournamentServiceInstances;
+    }
+
+    // Rethrows the failure as a blocking client would have.
+    static <T> T await(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // The dispatcher limits the calls in flight to each instance to the size of the pool, any further calls wait in its queue.
+    private LoadBalancingAsyncClient createLoadBalancer(RemoteServiceSettings settings) {
+        var instances = settings.getUrls().size();
+        var dispatcher = this.callExecutor == null ? new Dispatcher() : new Dispatcher(this.callExecutor);
+        dispatcher.setMaxRequests(settings.getPoolSize() * instances);
+        dispatcher.setMaxRequestsPerHost(settings.getPoolSize());
+
+        var httpClient = this.baseClient.newBuilder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(settings.getPoolSize() * instances, settings.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(settings.getConnectTimeout())
+                .readTimeout(settings.getReadTimeout())
+                .build();
+
+        return new LoadBalancingAsyncClient(new OkHttpAsyncClient(httpClient), settings.getUrls(),
+                settings.getEjectAfterFailures(), settings.getEjection());
+    }
+
+    private <T> T createClient(Class<T> type, RemoteServiceSettings settings, LoadBalancingAsyncClient instances) {
+        var negotiation = new FormatNegotiation(settings.getFormat());
+        return AsyncFeign.asyncBuilder()
+                .client(instances)
+                .options(new Request.Options(settings.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                        settings.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS, true))
+                .encoder(new JsonCodecsEncoder(this.formats, negotiation))
+                .decoder(new JsonCodecsDecoder(this.formats, negotiation, new JacksonDecoder(this.formats.json().getObjectMapper())))
+                .decode404()
+                .requestInterceptor(template -> Deadline.current().ifPresent(deadline ->
+                        template.header(Deadline.TIMEOUT_HEADER, String.valueOf(deadline.remaining().toMillis()))))
+                .requestInterceptor(template -> template.removeHeader("Accept").header("Accept", negotiation.getAccept()))
+                .logger(new Slf4jLogger(type))
+                .logLevel(settings.getLogLevel())
+                .target(type, settings.getUrls().get(0));
+    }
+
+    public interface RemoteCodeGenerator {
         @RequestLine("GET /generate")
         @Headers({"Content-Type: application/json", "Accept: application/json"})
-        Code generateCode();
+        CompletableFuture<Code> generateCode();
+
+        @RequestLine("GET /generate?count={count}")
+        @Headers({"Content-Type: application/json", "Accept: application/json"})
+        CompletableFuture<List<Code>> generateCodes(@Param("count") int count);
     }
 
-    interface RemoteCodeChecker {
+    public interface RemoteCodeChecker {
         @RequestLine("POST /check")
         @Headers({"Content-Type: application/json", "Accept: application/json"})
-        ResultResponse checkCode(CodeGuessBody body);
+        CompletableFuture<ResultResponse> checkCode(CodeGuessBody body);
+
+        @RequestLine("POST /check/batch")
+        @Headers({"Content-Type: application/json", "Accept: application/json"})
+        CompletableFuture<List<ResultResponse>> checkCodes(List<CodeGuessBody> bodies);
     }
 
-    interface RemoteTournamentService {
+    public interface RemoteTournamentService {
         @RequestLine("PUT /games/{gameId}/result")
         @Headers("Content-Type: application/json")
-        void gameEnded(@Param("gameId") UUID gameId, GameEndedBody body);
+        CompletableFuture<Void> gameEnded(@Param("gameId") UUID gameId, GameEndedBody body);
     }
 }
@@ -0,0 +1,107 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import feign.Logger;
+import nl.jaapcoomans.demo.mockserver.gameservice.Environment;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Read from the variables that share the prefix of the URL variable, e.g. CHECKER_READ_TIMEOUT_MILLIS.
+class RemoteServiceSettings {
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(5);
+    private static final int DEFAULT_POOL_SIZE = 32;
+    private static final Duration DEFAULT_KEEP_ALIVE = Duration.ofMinutes(1);
+    private static final String DEFAULT_LOG_LEVEL = "NONE";
+    private static final int DEFAULT_EJECT_AFTER_FAILURES = 3;
+    private static final Duration DEFAULT_EJECTION = Duration.ofSeconds(10);
+    private static final String DEFAULT_FORMAT = "json";
+
+    private final List<String> urls;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final int poolSize;
+    private final Duration keepAlive;
+    private final Logger.Level logLevel;
+    private final int ejectAfterFailures;
+    private final Duration ejection;
+    private final DataFormat format;
+
+    RemoteServiceSettings(List<String> urls, Duration connectTimeout, Duration readTimeout, int poolSize, Duration keepAlive,
+                          Logger.Level logLevel, int ejectAfterFailures, Duration ejection, DataFormat format) {
+        this.urls = urls;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.poolSize = poolSize;
+        this.keepAlive = keepAlive;
+        this.logLevel = logLevel;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejection = ejection;
+        this.format = format;
+    }
+
+    static RemoteServiceSettings fromEnvironment(String prefix, String defaultUrl) {
+        return new RemoteServiceSettings(
+                parseUrls(Environment.getOrDefault(prefix + "_URL", defaultUrl)),
+                Environment.getMillisOrDefault(prefix + "_CONNECT_TIMEOUT_MILLIS", DEFAULT_CONNECT_TIMEOUT),
+                Environment.getMillisOrDefault(prefix + "_READ_TIMEOUT_MILLIS", DEFAULT_READ_TIMEOUT),
+                Environment.getIntOrDefault(prefix + "_POOL_SIZE", DEFAULT_POOL_SIZE),
+                Environment.getSecondsOrDefault(prefix + "_KEEP_ALIVE_SECONDS", DEFAULT_KEEP_ALIVE),
+                Logger.Level.valueOf(Environment.getOrDefault(prefix + "_LOG_LEVEL", DEFAULT_LOG_LEVEL).toUpperCase()),
+                Environment.getIntOrDefault(prefix + "_EJECT_AFTER_FAILURES", DEFAULT_EJECT_AFTER_FAILURES),
+                Environment.getMillisOrDefault(prefix + "_EJECTION_MILLIS", DEFAULT_EJECTION),
+                DataFormat.fromName(Environment.getOrDefault(prefix + "_FORMAT", DEFAULT_FORMAT)));
+    }
+
+    static List<String> parseUrls(String urls) {
+        var parsed = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .distinct()
+                .collect(Collectors.toList());
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("No URL in '" + urls + "'");
+        }
+        return parsed;
+    }
+
+    List<String> getUrls() {
+        return urls;
+    }
+
+    Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    int getPoolSize() {
+        return poolSize;
+    }
+
+    Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    Logger.Level getLogLevel() {
+        return logLevel;
+    }
+
+    int getEjectAfterFailures() {
+        return ejectAfterFailures;
+    }
+
+    Duration getEjection() {
+        return ejection;
+    }
+
+    DataFormat getFormat() {
+        return format;
+    }
+}
@@ -0,0 +1,25 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.TournamentService;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+class RemoteTournamentServiceClient implements TournamentService {
+    private final RemoteServiceClientFactory.RemoteTournamentService remote;
+
+    RemoteTournamentServiceClient(RemoteServiceClientFactory.RemoteTournamentService remote) {
+        this.remote = remote;
+    }
+
+    @Override
+    public void gameEnded(UUID gameId, GameStatus result, int guesses) {
+        RemoteServiceClientFactory.await(this.gameEndedAsync(gameId, result, guesses));
+    }
+
+    @Override
+    public CompletableFuture<Void> gameEndedAsync(UUID gameId, GameStatus result, int guesses) {
+        return this.remote.gameEnded(gameId, new GameEndedBody(gameId, result, guesses));
+    }
+}
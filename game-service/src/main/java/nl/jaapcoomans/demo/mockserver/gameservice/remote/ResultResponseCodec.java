@@ -0,0 +1,26 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.JsonCodec;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.ResultCodec;
+
+import java.io.IOException;
+
+class ResultResponseCodec implements JsonCodec<ResultResponse> {
+    private final ResultCodec resultCodec = new ResultCodec();
+
+    @Override
+    public void write(ResultResponse response, JsonGenerator generator) throws IOException {
+        this.resultCodec.write(response.toResult(), generator);
+    }
+
+    @Override
+    public ResultResponse read(JsonParser parser) throws IOException {
+        var result = this.resultCodec.read(parser);
+        var response = new ResultResponse();
+        response.setBlackPins(result.getBlackPins());
+        response.setWhitePins(result.getWhitePins());
+        return response;
+    }
+}
@@ -0,0 +1,94 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+
+    private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, int halfOpenProbes) {
+        this(failureThreshold, openDuration, halfOpenProbes, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, int halfOpenProbes, LongSupplier clock) {
+        if (failureThreshold < 1 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("The failure threshold and the number of probes must be at least 1, not "
+                    + failureThreshold + " and " + halfOpenProbes);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+        this.halfOpenProbes = halfOpenProbes;
+        this.clock = clock;
+        for (State target : State.values()) {
+            this.transitions.put(target, new LongAdder());
+        }
+    }
+
+    // Every call that was allowed must be reported with onSuccess or onFailure.
+    public synchronized boolean tryAcquire() {
+        if (this.state == State.OPEN) {
+            if (this.clock.getAsLong() - this.openedAt < this.openMillis) {
+                return false;
+            }
+            this.transitionTo(State.HALF_OPEN);
+        }
+        if (this.state == State.HALF_OPEN) {
+            if (this.probesInFlight >= this.halfOpenProbes) {
+                return false;
+            }
+            this.probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (this.state == State.HALF_OPEN) {
+            this.transitionTo(State.CLOSED);
+        }
+        this.consecutiveFailures = 0;
+    }
+
+    // A call that was allowed before the breaker opened can still fail afterwards, that does not restart the open period.
+    public synchronized void onFailure() {
+        if (this.state == State.HALF_OPEN) {
+            this.transitionTo(State.OPEN);
+        } else if (this.state == State.CLOSED && ++this.consecutiveFailures >= this.failureThreshold) {
+            this.transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    public long getTransitionsTo(State state) {
+        return this.transitions.get(state).sum();
+    }
+
+    private void transitionTo(State state) {
+        this.state = state;
+        this.consecutiveFailures = 0;
+        this.probesInFlight = 0;
+        if (state == State.OPEN) {
+            this.openedAt = this.clock.getAsLong();
+        }
+        this.transitions.get(state).increment();
+    }
+}
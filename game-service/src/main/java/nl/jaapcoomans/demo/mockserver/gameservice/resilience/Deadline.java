@@ -0,0 +1,64 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+// The moment by which the request handled on this thread must be answered.
+public final class Deadline {
+    // The milliseconds left, on the requests of our clients and on our calls to remote services.
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public Scope enter() {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public static Executor carriedTo(Executor executor) {
+        var deadline = CURRENT.get();
+        if (deadline == null) {
+            return executor;
+        }
+        return task -> executor.execute(() -> {
+            try (var ignored = deadline.enter()) {
+                task.run();
+            }
+        });
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, this.expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return this.expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,61 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Without a batch endpoint, batches are checked with one guarded call per guess.
+public class GuardedCodeChecker implements CodeChecker {
+    private static final Logger LOG = LoggerFactory.getLogger(GuardedCodeChecker.class);
+
+    private final CodeChecker delegate;
+    private final RemoteGuard guard;
+
+    private volatile boolean batchSupported = true;
+
+    public GuardedCodeChecker(CodeChecker delegate, RemoteGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public Result checkCode(Code code, Code guess) {
+        return this.guard.call(() -> this.delegate.checkCodeAsync(code, guess));
+    }
+
+    @Override
+    public CompletableFuture<Result> checkCodeAsync(Code code, Code guess) {
+        return this.guard.callAsync(() -> this.delegate.checkCodeAsync(code, guess));
+    }
+
+    @Override
+    public CompletableFuture<List<Result>> checkCodesAsync(List<Code> codes, List<Code> guesses) {
+        if (!this.batchSupported || codes.isEmpty()) {
+            return this.checkOneByOne(codes, guesses);
+        }
+        // The answer arrives on a thread of the HTTP client, which does not know the deadline of the request.
+        var deadline = Deadline.current();
+        return this.guard.callAsync(() -> this.delegate.checkCodesAsync(codes, guesses))
+                .thenCompose(results -> {
+                    if (!results.isEmpty()) {
+                        return CompletableFuture.completedFuture(results);
+                    }
+                    if (this.batchSupported) {
+                        LOG.info("The code checker has no batch endpoint, checking batches with single calls");
+                        this.batchSupported = false;
+                    }
+                    try (var ignored = deadline.map(Deadline::enter).orElse(null)) {
+                        return this.checkOneByOne(codes, guesses);
+                    }
+                });
+    }
+
+    private CompletableFuture<List<Result>> checkOneByOne(List<Code> codes, List<Code> guesses) {
+        return this.guard.callEach(codes.size(), i -> this.delegate.checkCodeAsync(codes.get(i), guesses.get(i)));
+    }
+}
@@ -0,0 +1,65 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Without a batch endpoint, batches are generated with one guarded call per code.
+public class GuardedCodeGenerator implements CodeGenerator {
+    private static final Logger LOG = LoggerFactory.getLogger(GuardedCodeGenerator.class);
+
+    private final CodeGenerator delegate;
+    private final RemoteGuard guard;
+
+    private volatile boolean batchSupported = true;
+
+    public GuardedCodeGenerator(CodeGenerator delegate, RemoteGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public Code generateCode() {
+        return this.guard.call(this.delegate::generateCodeAsync);
+    }
+
+    @Override
+    public List<Code> generateCodes(int count) {
+        return RemoteGuard.await(this.generateCodesAsync(count));
+    }
+
+    @Override
+    public CompletableFuture<Code> generateCodeAsync() {
+        return this.guard.callAsync(this.delegate::generateCodeAsync);
+    }
+
+    @Override
+    public CompletableFuture<List<Code>> generateCodesAsync(int count) {
+        if (!this.batchSupported || count == 0) {
+            return this.generateOneByOne(count);
+        }
+        // The answer arrives on a thread of the HTTP client, which does not know the deadline of the request.
+        var deadline = Deadline.current();
+        return this.guard.callAsync(() -> this.delegate.generateCodesAsync(count))
+                .thenCompose(codes -> {
+                    if (!codes.isEmpty()) {
+                        return CompletableFuture.completedFuture(codes);
+                    }
+                    if (this.batchSupported) {
+                        LOG.info("The code generator has no batch endpoint, generating batches with single calls");
+                        this.batchSupported = false;
+                    }
+                    try (var ignored = deadline.map(Deadline::enter).orElse(null)) {
+                        return this.generateOneByOne(count);
+                    }
+                });
+    }
+
+    private CompletableFuture<List<Code>> generateOneByOne(int count) {
+        return this.guard.callEach(count, i -> this.delegate.generateCodeAsync());
+    }
+}
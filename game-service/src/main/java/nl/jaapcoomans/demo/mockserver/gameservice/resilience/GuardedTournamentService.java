@@ -0,0 +1,27 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.TournamentService;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public class GuardedTournamentService implements TournamentService {
+    private final TournamentService delegate;
+    private final RemoteGuard guard;
+
+    public GuardedTournamentService(TournamentService delegate, RemoteGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public void gameEnded(UUID gameId, GameStatus result, int guesses) {
+        this.guard.call(() -> this.delegate.gameEndedAsync(gameId, result, guesses));
+    }
+
+    @Override
+    public CompletableFuture<Void> gameEndedAsync(UUID gameId, GameStatus result, int guesses) {
+        return this.guard.callAsync(() -> this.delegate.gameEndedAsync(gameId, result, guesses));
+    }
+}
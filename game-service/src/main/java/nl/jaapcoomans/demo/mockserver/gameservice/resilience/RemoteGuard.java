@@ -0,0 +1,175 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// The bulkhead frees up when a call completes, not when its caller stops waiting for it.
+public class RemoteGuard {
+    private static final Duration LATENCY_WINDOW = Duration.ofMinutes(1);
+
+    private final String name;
+    private final CircuitBreaker breaker;
+    private final int maxConcurrentCalls;
+    private final Semaphore bulkhead;
+
+    private final LatencyHistogram latencies = new LatencyHistogram(LATENCY_WINDOW);
+
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder deadlineRejections = new LongAdder();
+    private final LongAdder deadlineTimeouts = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder breakerRejections = new LongAdder();
+
+    public RemoteGuard(String name, CircuitBreaker breaker, int maxConcurrentCalls) {
+        this.name = name;
+        this.breaker = breaker;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+    }
+
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        var deadline = Deadline.current();
+        if (deadline.isPresent() && deadline.get().isExpired()) {
+            this.deadlineRejections.increment();
+            return CompletableFuture.failedFuture(new ServiceUnavailableException("No time left to call the " + this.name));
+        }
+        if (!this.bulkhead.tryAcquire()) {
+            this.bulkheadRejections.increment();
+            return CompletableFuture.failedFuture(new ServiceUnavailableException(
+                    "The " + this.name + " is too busy, " + this.maxConcurrentCalls + " calls are in flight"));
+        }
+        if (!this.breaker.tryAcquire()) {
+            this.bulkhead.release();
+            this.breakerRejections.increment();
+            return CompletableFuture.failedFuture(new ServiceUnavailableException(
+                    "The " + this.name + " is unavailable, its circuit breaker is open"));
+        }
+
+        var start = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        // The breaker judges the call itself: a caller that runs out of time says nothing about the remote.
+        result.whenComplete((value, e) -> {
+            this.bulkhead.release();
+            if (e == null) {
+                this.latencies.record(System.nanoTime() - start);
+                this.breaker.onSuccess();
+            } else {
+                this.breaker.onFailure();
+                this.failures.increment();
+            }
+        });
+
+        if (deadline.isPresent()) {
+            result = result.copy().orTimeout(deadline.get().remaining().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return result.handle((value, e) -> {
+            if (e == null) {
+                return value;
+            }
+            var failure = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (failure instanceof TimeoutException) {
+                this.deadlineTimeouts.increment();
+            }
+            throw this.unavailable(failure);
+        });
+    }
+
+    public <T> T call(Supplier<CompletableFuture<T>> call) {
+        return await(this.callAsync(call));
+    }
+
+    // A quarter of the bulkhead at a time, so a batch of single calls leaves room for other requests.
+    public <T> CompletableFuture<List<T>> callEach(int count, IntFunction<CompletableFuture<T>> call) {
+        var window = Math.max(1, this.maxConcurrentCalls / 4);
+        return this.callEach(0, count, window, call, new ArrayList<>(count), Deadline.current());
+    }
+
+    // The next window starts on the thread that completed the last call, which does not know the deadline of the request.
+    private <T> CompletableFuture<List<T>> callEach(int from, int count, int window, IntFunction<CompletableFuture<T>> call,
+                                                   List<T> results, Optional<Deadline> deadline) {
+        if (from >= count) {
+            return CompletableFuture.completedFuture(results);
+        }
+        var to = Math.min(count, from + window);
+        List<CompletableFuture<T>> calls;
+        try (var ignored = deadline.map(Deadline::enter).orElse(null)) {
+            calls = IntStream.range(from, to)
+                    .mapToObj(i -> this.callAsync(() -> call.apply(i)))
+                    .collect(Collectors.toList());
+        }
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).thenCompose(ignored -> {
+            calls.forEach(result -> results.add(result.join()));
+            return this.callEach(to, count, window, call, results, deadline);
+        });
+    }
+
+    public static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ServiceUnavailableException) {
+                throw (ServiceUnavailableException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private ServiceUnavailableException unavailable(Throwable failure) {
+        if (failure instanceof TimeoutException) {
+            return new ServiceUnavailableException("The " + this.name + " did not answer before the deadline", failure);
+        }
+        return new ServiceUnavailableException("The " + this.name + " failed: " + failure.getMessage(), failure);
+    }
+
+    // Includes the calls whose caller stopped waiting for them.
+    public LatencyHistogram getLatencies() {
+        return this.latencies;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return this.breaker;
+    }
+
+    public long getCallsInFlight() {
+        return this.maxConcurrentCalls - this.bulkhead.availablePermits();
+    }
+
+    public long getFailures() {
+        return this.failures.sum();
+    }
+
+    public long getDeadlineRejections() {
+        return this.deadlineRejections.sum();
+    }
+
+    public long getDeadlineTimeouts() {
+        return this.deadlineTimeouts.sum();
+    }
+
+    public long getBulkheadRejections() {
+        return this.bulkheadRejections.sum();
+    }
+
+    public long getBreakerRejections() {
+        return this.breakerRejections.sum();
+    }
+}
@@ -0,0 +1,11 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
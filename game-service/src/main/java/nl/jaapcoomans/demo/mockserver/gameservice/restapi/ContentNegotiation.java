@@ -0,0 +1,70 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.HttpResponseException;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormats;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+public class ContentNegotiation {
+    private static final int UNSUPPORTED_MEDIA_TYPE = 415;
+
+    private final DataFormats formats;
+    private final Set<DataFormat> offered;
+
+    public ContentNegotiation(DataFormats formats, Set<DataFormat> binaryFormats) {
+        this.formats = formats;
+        this.offered = EnumSet.of(DataFormat.JSON);
+        this.offered.addAll(binaryFormats);
+    }
+
+    DataFormats getFormats() {
+        return this.formats;
+    }
+
+    <T> T readBody(Context requestContext, Class<T> type) {
+        var format = DataFormat.ofContentType(requestContext.contentType()).orElse(DataFormat.JSON);
+        if (format == DataFormat.JSON) {
+            return requestContext.bodyAsClass(type);
+        }
+        if (!this.offered.contains(format)) {
+            throw new HttpResponseException(UNSUPPORTED_MEDIA_TYPE, format.getMediaType() + " is not supported", Map.of());
+        }
+        try {
+            return this.formats.codecsFor(format).fromJson(new ByteArrayInputStream(requestContext.bodyAsBytes()), type);
+        } catch (IOException e) {
+            throw new BadRequestResponse("Couldn't deserialize body to " + type.getSimpleName());
+        }
+    }
+
+    void respond(Context requestContext, Object value) {
+        var format = this.responseFormat(requestContext);
+        if (format == DataFormat.JSON) {
+            requestContext.json(value);
+        } else {
+            requestContext.contentType(format.getMediaType()).result(this.formats.codecsFor(format).toJsonBytes(value));
+        }
+    }
+
+    void respond(Context requestContext, CompletableFuture<?> value) {
+        var format = this.responseFormat(requestContext);
+        if (format == DataFormat.JSON) {
+            requestContext.json(value);
+        } else {
+            var codecs = this.formats.codecsFor(format);
+            requestContext.contentType(format.getMediaType())
+                    .result(value.thenApply(result -> new ByteArrayInputStream(codecs.toJsonBytes(result))));
+        }
+    }
+
+    private DataFormat responseFormat(Context requestContext) {
+        return DataFormat.negotiate(requestContext.header("Accept"), this.offered);
+    }
+}
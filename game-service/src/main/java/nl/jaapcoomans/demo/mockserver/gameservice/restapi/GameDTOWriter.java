@@ -0,0 +1,45 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.JsonWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// Like databind, the binary formats get the id as its sixteen bytes.
+public class GameDTOWriter implements JsonWriter<GameDTO> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString[] STATUSES = new SerializableString[GameStatus.values().length];
+
+    static {
+        for (GameStatus status : GameStatus.values()) {
+            STATUSES[status.ordinal()] = new SerializedString(status.name());
+        }
+    }
+
+    @Override
+    public void write(GameDTO game, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        if (generator.canWriteBinaryNatively()) {
+            generator.writeBinary(toBytes(game.getId()));
+        } else {
+            generator.writeString(game.getId().toString());
+        }
+        generator.writeFieldName(STATUS);
+        generator.writeString(STATUSES[game.getStatus().ordinal()]);
+        generator.writeEndObject();
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,48 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameEvent;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+
+import java.util.UUID;
+
+public class GameEventDTO {
+    private UUID gameId;
+    private int turn;
+    private Code guess;
+    private Result result;
+    private GameStatus status;
+
+    static GameEventDTO fromEvent(GameEvent event) {
+        return new GameEventDTO(event.getGameId(), event.getTurn(), event.getGuess(), event.getResult(), event.getStatus());
+    }
+
+    private GameEventDTO(UUID gameId, int turn, Code guess, Result result, GameStatus status) {
+        this.gameId = gameId;
+        this.turn = turn;
+        this.guess = guess;
+        this.result = result;
+        this.status = status;
+    }
+
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public Code getGuess() {
+        return guess;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public GameStatus getStatus() {
+        return status;
+    }
+}
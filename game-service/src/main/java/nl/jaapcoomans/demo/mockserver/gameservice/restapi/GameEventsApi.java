@@ -0,0 +1,124 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import io.javalin.http.Context;
+import io.javalin.http.NotFoundResponse;
+import io.javalin.http.sse.SseClient;
+import io.javalin.http.sse.SseHandler;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameEvent;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameService;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.events.EventSink;
+import nl.jaapcoomans.demo.mockserver.gameservice.events.GameEventBroadcaster;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.JsonCodecs;
+import org.eclipse.jetty.server.Request;
+
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// A stream of one game starts with a status event and ends after the won or lost event.
+public class GameEventsApi {
+    private GameService gameService;
+    private GameEventBroadcaster broadcaster;
+    private JsonCodecs json;
+
+    private final SseHandler gameEvents = new SseHandler(this::streamGameEvents);
+    private final SseHandler allGameEvents = new SseHandler(this::streamAllGameEvents);
+
+    public GameEventsApi(GameService gameService, GameEventBroadcaster broadcaster, JsonCodecs json) {
+        this.gameService = gameService;
+        this.broadcaster = broadcaster;
+        this.json = json;
+    }
+
+    // The event stream is started with a 200 before the game is looked up, so an unknown game is turned away first.
+    public void gameEvents(Context requestContext) throws Exception {
+        var gameId = UUID.fromString(requestContext.pathParam("id"));
+        if (this.gameService.findById(gameId).isEmpty()) {
+            throw new NotFoundResponse();
+        }
+        this.gameEvents.handle(requestContext);
+    }
+
+    public void allGameEvents(Context requestContext) throws Exception {
+        this.allGameEvents.handle(requestContext);
+    }
+
+    private void streamGameEvents(SseClient client) {
+        var gameId = UUID.fromString(client.ctx.pathParam("id"));
+        var sink = new SseEventSink(client);
+
+        // Subscribed before the game is read so no turn is missed, the sink skips the turns the status holds.
+        synchronized (sink) {
+            var subscription = this.broadcaster.subscribe(gameId, sink);
+            client.onClose(subscription::close);
+
+            var game = this.gameService.findById(gameId);
+            if (game.isEmpty()) {
+                subscription.close();
+                return;
+            }
+            client.sendEvent("status", this.json.toJson(GameDTO.fromGame(game.get())), gameId.toString());
+            sink.sentTurns = game.get().getTurns().size();
+            if (game.get().getStatus() != GameStatus.IN_PROGRESS) {
+                subscription.close();
+            }
+        }
+    }
+
+    private void streamAllGameEvents(SseClient client) {
+        var subscription = this.broadcaster.subscribeToAll(new SseEventSink(client));
+        client.onClose(subscription::close);
+    }
+
+    private static String eventName(GameStatus status) {
+        switch (status) {
+            case WON:
+                return "won";
+            case LOST:
+                return "lost";
+            default:
+                return "turn";
+        }
+    }
+
+    private class SseEventSink implements EventSink {
+        private final SseClient client;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private int sentTurns;
+
+        private SseEventSink(SseClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public synchronized void send(GameEvent event) {
+            if (event.getTurn() <= this.sentTurns) {
+                return;
+            }
+            this.client.sendEvent(eventName(event.getStatus()),
+                    GameEventsApi.this.json.toJson(GameEventDTO.fromEvent(event)),
+                    event.getGameId() + "/" + event.getTurn());
+        }
+
+        // Not synchronized: a guess disconnecting a slow client must not wait for a send that is stuck on the socket.
+        @Override
+        public void close() {
+            if (this.closed.compareAndSet(false, true)) {
+                try {
+                    this.client.ctx.req.getAsyncContext().complete();
+                } catch (IllegalStateException e) {
+                    // The request has already ended.
+                }
+            }
+        }
+
+        @Override
+        public void abort() {
+            if (this.closed.compareAndSet(false, true)) {
+                Request.getBaseRequest(this.client.ctx.req).getHttpChannel()
+                        .abort(new TimeoutException("The client did not take an event in time"));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameGuess;
+
+import java.util.UUID;
+
+public class GameGuessDTO {
+    private UUID gameId;
+    private Code guess;
+
+    @JsonCreator
+    public GameGuessDTO(@JsonProperty("gameId") UUID gameId, @JsonProperty("guess") Code guess) {
+        this.gameId = gameId;
+        this.guess = guess;
+    }
+
+    GameGuess toGameGuess() {
+        if (this.gameId == null || this.guess == null) {
+            throw new IllegalArgumentException("A guess needs both a game id and a code");
+        }
+        return new GameGuess(this.gameId, this.guess);
+    }
+
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    public Code getGuess() {
+        return guess;
+    }
+}
@@ -0,0 +1,30 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class GamePageDTO {
+    private List<GameDTO> games;
+    private UUID next;
+
+    static GamePageDTO fromGames(List<Game> games, int limit) {
+        var next = games.size() < limit ? null : games.get(games.size() - 1).getId();
+        return new GamePageDTO(games.stream().map(GameDTO::fromGame).collect(Collectors.toList()), next);
+    }
+
+    private GamePageDTO(List<GameDTO> games, UUID next) {
+        this.games = games;
+        this.next = next;
+    }
+
+    public List<GameDTO> getGames() {
+        return games;
+    }
+
+    public UUID getNext() {
+        return next;
+    }
+}
@@ -1,25 +1,125 @@
 package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.http.Context;
 import io.javalin.http.NotFoundResponse;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameGuess;
 import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameService;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.resilience.ServiceUnavailableException;
 import org.eclipse.jetty.http.HttpStatus;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class GameServiceApi {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+    private static final int STREAM_PAGE_LIMIT = 500;
+    // The last millisecond for which game ids still sort by creation time, UUIDs compare their high bits signed.
+    private static final Instant LATEST_CREATION_TIME = Instant.ofEpochMilli((1L << 47) - 1);
+    private static final GameDTOWriter GAME_WRITER = new GameDTOWriter();
+
     private GameService gameService;
+    private ContentNegotiation negotiation;
+    private ObjectMapper objectMapper;
+
+    private boolean blockingCalls;
+
+    public GameServiceApi(GameService gameService, ContentNegotiation negotiation) {
+        this(gameService, negotiation, false);
+    }
 
-    public GameServiceApi(GameService gameService) {
+    public GameServiceApi(GameService gameService, ContentNegotiation negotiation, boolean blockingCalls) {
         this.gameService = gameService;
+        this.negotiation = negotiation;
+        this.objectMapper = negotiation.getFormats().json().getObjectMapper();
+        this.blockingCalls = blockingCalls;
+    }
+
+    // A page with limit or after, NDJSON with format=ndjson, otherwise a JSON array; status, from and to filter each.
+    public void listAllGames(Context requestContext) throws IOException {
+        var after = requestContext.queryParam("after");
+        var limit = requestContext.queryParam("limit");
+        var status = requestContext.queryParam("status");
+        var from = requestContext.queryParam("from");
+        var to = requestContext.queryParam("to");
+
+        var ndjson = isNdjsonRequested(requestContext);
+        var singlePage = !ndjson && (after != null || limit != null);
+
+        var pageLimit = STREAM_PAGE_LIMIT;
+        if (singlePage) {
+            pageLimit = limit == null ? DEFAULT_PAGE_LIMIT : Integer.parseInt(limit);
+        }
+        var page = after == null ? PageRequest.first(pageLimit) : PageRequest.after(UUID.fromString(after), pageLimit);
+        if (from != null || to != null) {
+            page = page.createdBetween(
+                    from == null ? Instant.EPOCH : Instant.parse(from),
+                    to == null ? LATEST_CREATION_TIME : Instant.parse(to));
+        }
+
+        Function<PageRequest, List<Game>> findPage = status == null
+                ? this.gameService::findPage
+                : request -> this.gameService.findByStatus(GameStatus.valueOf(status.toUpperCase()), request);
+
+        if (singlePage) {
+            this.negotiation.respond(requestContext, GamePageDTO.fromGames(findPage.apply(page), pageLimit));
+        } else {
+            this.streamGames(requestContext, findPage, page, ndjson);
+        }
     }
 
-    public void listAllGames(Context requestContext) {
-        List<Game> allGames = this.gameService.findAll();
-        requestContext.json(allGames);
+    private static boolean isNdjsonRequested(Context requestContext) {
+        var accept = requestContext.header("Accept");
+        return "ndjson".equals(requestContext.queryParam("format")) || (accept != null && accept.contains(NDJSON));
+    }
+
+    // Games are read and written one page at a time, so neither the list of games nor the response is held in memory.
+    private void streamGames(Context requestContext, Function<PageRequest, List<Game>> findPage, PageRequest firstPage,
+                             boolean ndjson) throws IOException {
+        requestContext.contentType(ndjson ? NDJSON : "application/json");
+
+        try (var generator = this.objectMapper.getFactory().createGenerator(requestContext.res.getOutputStream())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+
+            var page = firstPage;
+            List<Game> games;
+            do {
+                games = findPage.apply(page);
+                for (Game game : games) {
+                    GAME_WRITER.write(GameDTO.fromGame(game), generator);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                }
+                generator.flush();
+                if (!games.isEmpty()) {
+                    page = page.next(games.get(games.size() - 1).getId());
+                }
+            } while (games.size() == page.getLimit());
+
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
     }
 
     public void findById(Context requestContext) {
@@ -28,21 +128,71 @@ public class GameServiceApi {
                 .map(GameDTO::fromGame)
                 .orElseThrow(NotFoundResponse::new);
 
-        requestContext.json(game).status(HttpStatus.OK_200);
+        this.negotiation.respond(requestContext, game);
+        requestContext.status(HttpStatus.OK_200);
     }
 
     public void createNewGame(Context requestContext) {
-        Game newGame = this.gameService.startNewGame();
-        requestContext.json(GameDTO.fromGame(newGame));
+        if (this.blockingCalls) {
+            this.negotiation.respond(requestContext, GameDTO.fromGame(this.gameService.startNewGame()));
+        } else {
+            this.negotiation.respond(requestContext, this.gameService.startNewGameAsync().thenApply(GameDTO::fromGame));
+        }
+    }
+
+    public void createNewGames(Context requestContext) {
+        var count = requestContext.queryParam("count");
+        if (count == null) {
+            throw new IllegalArgumentException("The number of games to create is missing");
+        }
+        if (this.blockingCalls) {
+            this.negotiation.respond(requestContext, toGameDTOs(this.gameService.startNewGames(Integer.parseInt(count))));
+        } else {
+            this.negotiation.respond(requestContext,
+                    this.gameService.startNewGamesAsync(Integer.parseInt(count)).thenApply(GameServiceApi::toGameDTOs));
+        }
     }
 
     public void guessCode(Context requestContext) {
         var gameId = UUID.fromString(requestContext.pathParam("id"));
-        var guess = requestContext.bodyAsClass(Code.class);
+        var guess = this.negotiation.readBody(requestContext, Code.class);
 
-        var result = this.gameService.guessCode(gameId, guess);
+        if (this.blockingCalls) {
+            this.negotiation.respond(requestContext, this.gameService.guessCode(gameId, guess));
+        } else {
+            this.negotiation.respond(requestContext, this.gameService.guessCodeAsync(gameId, guess));
+        }
+    }
 
-        requestContext.json(result);
+    // Answers each guess with its result, or the error it would have been answered with on its own.
+    public void guessCodes(Context requestContext) {
+        var guesses = Arrays.stream(this.negotiation.readBody(requestContext, GameGuessDTO[].class))
+                .map(GameGuessDTO::toGameGuess)
+                .collect(Collectors.toList());
+
+        var outcomes = this.gameService.guessCodesAsync(guesses);
+        var response = CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new))
+                .handle((ignored, e) -> toGuessOutcomeDTOs(guesses, outcomes));
+        if (this.blockingCalls) {
+            this.negotiation.respond(requestContext, response.join());
+        } else {
+            this.negotiation.respond(requestContext, response);
+        }
+    }
+
+    private static List<GuessOutcomeDTO> toGuessOutcomeDTOs(List<GameGuess> guesses, List<CompletableFuture<Result>> outcomes) {
+        var dtos = new ArrayList<GuessOutcomeDTO>(outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            var gameId = guesses.get(i).getGameId();
+            try {
+                dtos.add(GuessOutcomeDTO.played(gameId, outcomes.get(i).join()));
+            } catch (CompletionException e) {
+                var cause = e.getCause() == null ? e : e.getCause();
+                var statusCode = cause instanceof ServiceUnavailableException ? HttpStatus.SERVICE_UNAVAILABLE_503 : HttpStatus.BAD_REQUEST_400;
+                dtos.add(GuessOutcomeDTO.failed(gameId, new ErrorDTO(statusCode, cause.getMessage())));
+            }
+        }
+        return dtos;
     }
 
     public void getSolution(Context requestContext) {
@@ -50,6 +200,10 @@ public class GameServiceApi {
 
         var result = this.gameService.getSolution(gameId);
 
-        requestContext.json(result);
+        this.negotiation.respond(requestContext, result);
+    }
+
+    private static List<GameDTO> toGameDTOs(List<Game> games) {
+        return games.stream().map(GameDTO::fromGame).collect(Collectors.toList());
     }
 }
@@ -0,0 +1,39 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GuessOutcomeDTO {
+    private UUID gameId;
+    private Result result;
+    private ErrorDTO error;
+
+    static GuessOutcomeDTO played(UUID gameId, Result result) {
+        return new GuessOutcomeDTO(gameId, result, null);
+    }
+
+    static GuessOutcomeDTO failed(UUID gameId, ErrorDTO error) {
+        return new GuessOutcomeDTO(gameId, null, error);
+    }
+
+    private GuessOutcomeDTO(UUID gameId, Result result, ErrorDTO error) {
+        this.gameId = gameId;
+        this.result = result;
+        this.error = error;
+    }
+
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public ErrorDTO getError() {
+        return error;
+    }
+}
@@ -0,0 +1,16 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import io.javalin.http.Context;
+import nl.jaapcoomans.demo.mockserver.gameservice.metrics.Metrics;
+
+public class MetricsApi {
+    private Metrics metrics;
+
+    public MetricsApi(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void getMetrics(Context requestContext) {
+        requestContext.json(this.metrics.snapshot());
+    }
+}
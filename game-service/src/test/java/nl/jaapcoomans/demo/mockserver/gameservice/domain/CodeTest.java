@@ -0,0 +1,27 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CodeTest {
+    @Test
+    @DisplayName("A code read from JSON is the canonical instance of that code and is written back with the same pins.")
+    void testJsonResolvesToCanonicalCode() throws Exception {
+        // Given
+        var objectMapper = new ObjectMapper();
+        var json = "{\"pin0\":\"RED\",\"pin1\":\"GREEN\",\"pin2\":\"BLUE\",\"pin3\":\"YELLOW\"}";
+
+        // When
+        var first = objectMapper.readValue(json, Code.class);
+        var second = objectMapper.readValue(json, Code.class);
+
+        // Then
+        assertThat(first).isSameAs(second);
+        assertThat(first).isSameAs(Code.of(ColoredPin.RED, ColoredPin.GREEN, ColoredPin.BLUE, ColoredPin.YELLOW));
+        assertThat(first).isEqualTo(new Code(ColoredPin.RED, ColoredPin.GREEN, ColoredPin.BLUE, ColoredPin.YELLOW));
+        assertThat(objectMapper.writeValueAsString(first)).isEqualTo(json);
+    }
+}
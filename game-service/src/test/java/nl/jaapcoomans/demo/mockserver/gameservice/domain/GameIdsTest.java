@@ -0,0 +1,49 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameIdsTest {
+    @Test
+    @DisplayName("Game ids of one thread are unique, strictly increasing version 7 UUIDs.")
+    void testIdsAreOrdered() {
+        // When
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(GameIds.next());
+        }
+
+        // Then
+        assertThat(new HashSet<>(ids)).hasSameSizeAs(ids);
+        assertThat(ids).isSorted();
+        assertThat(ids).allSatisfy(id -> {
+            assertThat(id.version()).isEqualTo(7);
+            assertThat(id.variant()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    @DisplayName("A game id carries its creation time, and a creation time range selects the ids created within it.")
+    void testCreationTime() {
+        // Given
+        var before = Instant.now();
+        var id = GameIds.next();
+        var after = Instant.now();
+
+        // Then
+        assertThat(GameIds.createdAt(id)).isBetween(before.minusMillis(1), after);
+
+        var page = PageRequest.first(10);
+        assertThat(page.createdBetween(before.minusMillis(1), after.plusMillis(1)).includes(id)).isTrue();
+        assertThat(page.createdBetween(after.plusMillis(1), after.plus(Duration.ofHours(1))).includes(id)).isFalse();
+        assertThat(page.createdBetween(Instant.EPOCH, before.minusMillis(1)).includes(id)).isFalse();
+    }
+}
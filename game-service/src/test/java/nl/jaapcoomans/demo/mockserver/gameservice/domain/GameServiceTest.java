@@ -5,16 +5,28 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -55,6 +67,31 @@ class GameServiceTest {
         verifyNoInteractions(tournamentService);
     }
 
+    @Test
+    @DisplayName("When a batch of games is started, one batch of codes is generated and all games are persisted at once.")
+    void testStartGames() {
+        // Given
+        when(codeGenerator.generateCodes(3)).thenReturn(List.of(createACode(), createACode(), createACode()));
+
+        // When
+        var games = gameService.startNewGames(3);
+
+        // Then
+        assertThat(games).hasSize(3).allSatisfy(game -> assertThat(game.getStatus()).isEqualTo(GameStatus.IN_PROGRESS));
+
+        verify(repository).persistAll(games);
+        verify(codeGenerator).generateCodes(3);
+        verifyNoInteractions(codeChecker, tournamentService);
+    }
+
+    @Test
+    @DisplayName("A batch of games must contain at least one and at most the maximum number of games.")
+    void testStartGamesOutOfRange() {
+        assertThat(catchThrowable(() -> gameService.startNewGames(0))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> gameService.startNewGames(GameService.MAX_BATCH_SIZE + 1))).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(codeGenerator, repository);
+    }
+
     @Test
     @DisplayName("When a guess is made for a game that does not exist, an exception is thrown.")
     void testGuessNonExistingGame() {
@@ -98,6 +135,7 @@ class GameServiceTest {
     void testGuessDelegatesToGame() {
         // Given
         var game = mock(Game.class);
+        when(game.getId()).thenReturn(UUID.randomUUID());
         when(repository.findById(any())).thenReturn(Optional.of(game));
         var guess = createACode();
 
@@ -164,6 +202,186 @@ class GameServiceTest {
         verify(this.tournamentService).gameEnded(game.getId(), GameStatus.LOST, 10);
     }
 
+    @Test
+    @DisplayName("When many threads guess on the same game, exactly 10 turns are played and the game is reported once")
+    void testConcurrentGuessesOnOneGame() throws InterruptedException {
+        // Given a game backed by a checker that is slow enough to let guesses overlap
+        var code = createACode();
+        var game = new Game(code);
+        var nonWinningResult = createANonWinningResult();
+        when(repository.findById(game.getId())).thenReturn(Optional.of(game));
+
+        CodeChecker slowChecker = (actual, guess) -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            return nonWinningResult;
+        };
+        var service = new GameService(repository, codeGenerator, slowChecker, tournamentService);
+
+        // When 16 threads hammer the game with 50 guesses each
+        var threads = 16;
+        var executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var accepted = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var wrongGuess = createADifferentCode(code);
+
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        service.guessCode(game.getId(), wrongGuess);
+                        accepted.incrementAndGet();
+                    } catch (IllegalGameSateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        shutdownAndAwait(executor);
+
+        // Then exactly 10 guesses were accepted and the tournament-service heard about the game only once
+        assertThat(accepted.get()).isEqualTo(10);
+        assertThat(rejected.get()).isEqualTo(threads * 50 - 10);
+        assertThat(game.getNumberOfGuesses()).isEqualTo(10);
+        assertThat(game.getStatus()).isEqualTo(GameStatus.LOST);
+        verify(this.tournamentService, times(1)).gameEnded(game.getId(), GameStatus.LOST, 10);
+    }
+
+    @Test
+    @DisplayName("An asynchronous guess is recorded by the continuations, not by the thread that completed the check")
+    void testAsyncGuessIsRecordedByTheContinuations() {
+        // Given a checker that answers only when told to, and continuations that hold on to their tasks
+        var code = createACode();
+        var game = new Game(code);
+        when(repository.findById(game.getId())).thenReturn(Optional.of(game));
+        var check = new CompletableFuture<Result>();
+        when(codeChecker.checkCodeAsync(any(), any())).thenReturn(check);
+        var tasks = new ArrayList<Runnable>();
+        var service = new GameService(repository, codeGenerator, codeChecker, tournamentService,
+                GameEventListener.NONE, () -> tasks::add);
+
+        // When the check completes
+        var outcome = service.guessCodeAsync(game.getId(), createADifferentCode(code));
+        check.complete(createANonWinningResult());
+
+        // Then the turn is only recorded once the continuation runs
+        verify(repository, never()).persist(any());
+        assertThat(outcome).isNotDone();
+        tasks.forEach(Runnable::run);
+        assertThat(outcome).isCompleted();
+        verify(repository).persist(game);
+    }
+
+    @Test
+    @DisplayName("When asynchronous guesses are checked at the same time, only the first 10 to complete are recorded")
+    void testAsyncGuessesCompletingOutOfOrder() {
+        // Given a game and a checker that answers only when told to
+        var code = createACode();
+        var game = new Game(code);
+        when(repository.findById(game.getId())).thenReturn(Optional.of(game));
+
+        var pendingChecks = new ArrayList<CompletableFuture<Result>>();
+        when(codeChecker.checkCodeAsync(any(), any())).thenAnswer(invocation -> {
+            var check = new CompletableFuture<Result>();
+            pendingChecks.add(check);
+            return check;
+        });
+        when(tournamentService.gameEndedAsync(any(), any(), anyInt())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When 12 guesses are made before any of them is checked, and the checks complete in reverse order
+        var wrongGuess = createADifferentCode(code);
+        var results = new ArrayList<CompletableFuture<Result>>();
+        for (int i = 0; i < 12; i++) {
+            results.add(this.gameService.guessCodeAsync(game.getId(), wrongGuess));
+        }
+        for (int i = pendingChecks.size() - 1; i >= 0; i--) {
+            pendingChecks.get(i).complete(createANonWinningResult());
+        }
+
+        // Then the last 10 guesses were recorded, the first 2 were rejected and the game is reported once
+        assertThat(results.subList(2, 12)).allSatisfy(result -> assertThat(result).isCompleted());
+        assertThat(results.subList(0, 2)).allSatisfy(result -> assertThat(catchThrowable(result::join))
+                .hasCauseInstanceOf(IllegalGameSateException.class));
+        assertThat(game.getStatus()).isEqualTo(GameStatus.LOST);
+        verify(this.tournamentService, times(1)).gameEndedAsync(game.getId(), GameStatus.LOST, 10);
+    }
+
+    @Test
+    @DisplayName("A batch of guesses is checked in one call, applied per game in order, and answered per guess.")
+    void testGuessBatch() {
+        // Given two games, and a checker that answers a batch at once
+        var firstCode = createACode();
+        var firstGame = new Game(firstCode);
+        var secondGame = new Game(createACode());
+        var unknownGameId = UUID.randomUUID();
+        when(repository.findById(firstGame.getId())).thenReturn(Optional.of(firstGame));
+        when(repository.findById(secondGame.getId())).thenReturn(Optional.of(secondGame));
+        when(repository.findById(unknownGameId)).thenReturn(Optional.empty());
+        when(codeChecker.checkCodesAsync(any(), any())).thenAnswer(invocation -> {
+            List<Code> codes = invocation.getArgument(0);
+            List<Code> guesses = invocation.getArgument(1);
+            var results = new ArrayList<Result>();
+            for (int i = 0; i < codes.size(); i++) {
+                results.add(codes.get(i).equals(guesses.get(i)) ? ALL_CORRECT : createANonWinningResult());
+            }
+            return CompletableFuture.completedFuture(results);
+        });
+        when(tournamentService.gameEndedAsync(any(), any(), anyInt())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When the first game is guessed wrong, won and guessed again, with guesses for other games in between
+        var wrongGuess = createADifferentCode(firstCode);
+        var outcomes = gameService.guessCodesAsync(List.of(
+                new GameGuess(firstGame.getId(), wrongGuess),
+                new GameGuess(secondGame.getId(), createACode()),
+                new GameGuess(firstGame.getId(), firstCode),
+                new GameGuess(unknownGameId, createACode()),
+                new GameGuess(firstGame.getId(), wrongGuess)));
+
+        // Then each guess has its own outcome, and the turns of the first game were played in the order of the batch
+        assertThat(outcomes.get(0).join()).isNotEqualTo(ALL_CORRECT);
+        assertThat(outcomes.get(1)).isCompleted();
+        assertThat(outcomes.get(2).join()).isEqualTo(ALL_CORRECT);
+        assertThat(catchThrowable(outcomes.get(3)::join)).hasMessageContaining("Game does not exist");
+        assertThat(catchThrowable(outcomes.get(4)::join)).hasCauseInstanceOf(IllegalGameSateException.class);
+        assertThat(firstGame.getStatus()).isEqualTo(GameStatus.WON);
+        assertThat(firstGame.getTurns()).extracting(Turn::getGuess).containsExactly(wrongGuess, firstCode);
+        assertThat(secondGame.getTurns()).hasSize(1);
+
+        verify(codeChecker, times(1)).checkCodesAsync(any(), any());
+        verify(codeChecker, never()).checkCodeAsync(any(), any());
+        verify(repository, times(1)).persistAll(any());
+        verify(repository, never()).persist(any());
+        verify(tournamentService, times(1)).gameEndedAsync(firstGame.getId(), GameStatus.WON, 2);
+    }
+
+    @Test
+    @DisplayName("A batch of guesses must contain at least one and at most the maximum number of guesses.")
+    void testGuessBatchOutOfRange() {
+        var tooMany = new ArrayList<GameGuess>();
+        for (int i = 0; i <= GameService.MAX_BATCH_SIZE; i++) {
+            tooMany.add(new GameGuess(UUID.randomUUID(), createACode()));
+        }
+
+        assertThat(catchThrowable(() -> gameService.guessCodesAsync(List.of()))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> gameService.guessCodesAsync(tooMany))).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(codeChecker, repository);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void shutdownAndAwait(ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+    }
+
     private static Code createACode() {
         return new Code(pickAColor(), pickAColor(), pickAColor(), pickAColor());
     }
@@ -0,0 +1,97 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingCodeCheckerTest {
+    private final CodeChecker delegate = mock(CodeChecker.class);
+
+    @Test
+    @DisplayName("A code and guess that were checked before are answered from the cache.")
+    void testRepeatedGuessIsCached() {
+        // Given
+        when(delegate.checkCode(any(), any())).thenAnswer(invocation ->
+                LocalCodeChecker.check(CodeEncoding.pack(invocation.getArgument(0)), CodeEncoding.pack(invocation.getArgument(1))));
+        var checker = new CachingCodeChecker(delegate, 1024, CachingCodeChecker.EvictionPolicy.LRU);
+        var code = CodeEncoding.unpack(0x123);
+        var guess = CodeEncoding.unpack(0x321);
+
+        // When
+        var first = checker.checkCode(code, guess);
+        var second = checker.checkCode(code, guess);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        verify(delegate, times(1)).checkCode(code, guess);
+        assertThat(checker.getHits()).isEqualTo(1);
+        assertThat(checker.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("The cache never holds more results than its maximum size, and LRU keeps the results that are used.")
+    void testEviction() {
+        // Given a cache of 32 results, two per segment
+        when(delegate.checkCode(any(), any())).thenAnswer(invocation ->
+                LocalCodeChecker.check(CodeEncoding.pack(invocation.getArgument(0)), CodeEncoding.pack(invocation.getArgument(1))));
+        var checker = new CachingCodeChecker(delegate, 32, CachingCodeChecker.EvictionPolicy.LRU);
+        var code = CodeEncoding.unpack(0);
+
+        // When every guess is checked and the first one is used again in between
+        for (int guess = 0; guess < CodeEncoding.NUMBER_OF_CODES; guess++) {
+            checker.checkCode(code, CodeEncoding.unpack(guess));
+            checker.checkCode(code, CodeEncoding.unpack(0));
+        }
+
+        // Then the cache is bounded and the guess that kept being used was never evicted
+        assertThat(checker.size()).isLessThanOrEqualTo(32);
+        verify(delegate, times(1)).checkCode(code, CodeEncoding.unpack(0));
+    }
+
+    @Test
+    @DisplayName("In a batch, the cached guesses are answered from the cache and only the others are sent on, as one batch.")
+    void testBatchSendsOnlyMisses() {
+        // Given a cache that holds the result of one of the guesses
+        when(delegate.checkCode(any(), any())).thenAnswer(invocation ->
+                LocalCodeChecker.check(CodeEncoding.pack(invocation.getArgument(0)), CodeEncoding.pack(invocation.getArgument(1))));
+        when(delegate.checkCodesAsync(any(), any())).thenAnswer(invocation -> {
+            List<Code> codes = invocation.getArgument(0);
+            List<Code> guesses = invocation.getArgument(1);
+            return CompletableFuture.completedFuture(IntStream.range(0, codes.size())
+                    .mapToObj(i -> LocalCodeChecker.check(CodeEncoding.pack(codes.get(i)), CodeEncoding.pack(guesses.get(i))))
+                    .collect(Collectors.toList()));
+        });
+        var checker = new CachingCodeChecker(delegate, 1024, CachingCodeChecker.EvictionPolicy.LRU);
+        var code = CodeEncoding.unpack(0x123);
+        var guesses = List.of(CodeEncoding.unpack(0x321), CodeEncoding.unpack(0x123), CodeEncoding.unpack(0x456));
+        var cached = checker.checkCode(code, guesses.get(1));
+
+        // When
+        var results = checker.checkCodesAsync(List.of(code, code, code), guesses).join();
+
+        // Then the results are in the order of the batch, and only the two misses were sent on
+        assertThat(results).hasSize(3);
+        assertThat(results.get(1)).isSameAs(cached);
+        for (int i = 0; i < guesses.size(); i++) {
+            Result expected = LocalCodeChecker.check(CodeEncoding.pack(code), CodeEncoding.pack(guesses.get(i)));
+            assertThat(results.get(i).getBlackPins()).isEqualTo(expected.getBlackPins());
+            assertThat(results.get(i).getWhitePins()).isEqualTo(expected.getWhitePins());
+        }
+        verify(delegate, times(1)).checkCodesAsync(List.of(code, code), List.of(guesses.get(0), guesses.get(2)));
+    }
+}
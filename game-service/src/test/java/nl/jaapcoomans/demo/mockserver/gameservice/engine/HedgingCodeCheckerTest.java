@@ -0,0 +1,102 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.metrics.LatencyHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HedgingCodeCheckerTest {
+    private final CodeChecker delegate = mock(CodeChecker.class);
+    private final LatencyHistogram latencies = new LatencyHistogram(Duration.ofMinutes(1));
+
+    @Test
+    @DisplayName("Nothing is hedged before enough latencies were recorded.")
+    void testNoHedgeWithoutSamples() {
+        // Given
+        var slow = new CompletableFuture<Result>();
+        when(delegate.checkCodeAsync(any(), any())).thenReturn(slow);
+        var checker = new HedgingCodeChecker(delegate, latencies, 0.95, Duration.ofMillis(1));
+
+        // When
+        var result = checker.checkCodeAsync(CodeEncoding.unpack(0x123), CodeEncoding.unpack(0x321));
+
+        // Then
+        assertThat(result).isSameAs(slow);
+        assertThat(checker.getHedges()).isZero();
+    }
+
+    @Test
+    @DisplayName("A check slower than the percentile is sent again, and the first answer is used.")
+    void testSlowCheckIsHedged() {
+        // Given a checker that usually answers within a millisecond, but hangs on the first request
+        recordLatencies(Duration.ofMillis(1));
+        var answer = new Result(1, 2);
+        when(delegate.checkCodeAsync(any(), any()))
+                .thenReturn(new CompletableFuture<>())
+                .thenReturn(CompletableFuture.completedFuture(answer));
+        var checker = new HedgingCodeChecker(delegate, latencies, 0.95, Duration.ofMillis(1));
+        var code = CodeEncoding.unpack(0x123);
+        var guess = CodeEncoding.unpack(0x321);
+
+        // When
+        var result = checker.checkCodeAsync(code, guess).orTimeout(5, TimeUnit.SECONDS).join();
+
+        // Then the hedged request answered
+        assertThat(result).isSameAs(answer);
+        verify(delegate, times(2)).checkCodeAsync(code, guess);
+        assertThat(checker.getHedges()).isEqualTo(1);
+        // The win is counted right after the answer was handed over, possibly on another thread
+        var countedBefore = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (checker.getHedgeWins() == 0 && System.nanoTime() < countedBefore) {
+            Thread.onSpinWait();
+        }
+        assertThat(checker.getHedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A hedged check fails only when both requests fail.")
+    void testBothRequestsFail() {
+        // Given
+        recordLatencies(Duration.ofMillis(1));
+        var first = new CompletableFuture<Result>();
+        when(delegate.checkCodeAsync(any(), any()))
+                .thenReturn(first)
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("second")));
+        var checker = new HedgingCodeChecker(delegate, latencies, 0.95, Duration.ofMillis(1));
+
+        // When the hedged request has failed
+        var result = checker.checkCodeAsync(CodeEncoding.unpack(0x123), CodeEncoding.unpack(0x321));
+        while (checker.getHedges() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Then the check is still waiting for the first request
+        assertThat(result).isNotDone();
+
+        // When the first request fails as well
+        first.completeExceptionally(new IllegalStateException("first"));
+
+        // Then the check fails
+        assertThatThrownBy(result::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private void recordLatencies(Duration latency) {
+        for (int i = 0; i < HedgingCodeChecker.MINIMUM_SAMPLES; i++) {
+            latencies.record(latency.toNanos());
+        }
+    }
+}
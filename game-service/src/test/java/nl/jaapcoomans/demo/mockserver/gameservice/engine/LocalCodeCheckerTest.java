@@ -0,0 +1,63 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+class LocalCodeCheckerTest {
+    private final LocalCodeChecker checker = new LocalCodeChecker();
+
+    @Test
+    @DisplayName("The local checker scores a guess with black pins for the right color on the right spot and white pins for the right color on the wrong spot.")
+    void testCheckCode() {
+        // Given
+        var code = new Code(ColoredPin.RED, ColoredPin.RED, ColoredPin.BLUE, ColoredPin.GREEN);
+        var guess = new Code(ColoredPin.RED, ColoredPin.BLUE, ColoredPin.RED, ColoredPin.YELLOW);
+
+        // When
+        var result = checker.checkCode(code, guess);
+
+        // Then
+        assertThat(result.getBlackPins()).isEqualTo(1);
+        assertThat(result.getWhitePins()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("The local checker agrees with a straightforward implementation for every code and guess.")
+    void testAllCodes() {
+        for (int code = 0; code < CodeEncoding.NUMBER_OF_CODES; code++) {
+            for (int guess = 0; guess < CodeEncoding.NUMBER_OF_CODES; guess++) {
+                var result = LocalCodeChecker.check(code, guess);
+                var expected = referenceScore(code, guess);
+                if (result.getBlackPins() != expected[0] || result.getWhitePins() != expected[1]) {
+                    fail("Wrong score for code %s and guess %s", CodeEncoding.unpack(code), CodeEncoding.unpack(guess));
+                }
+            }
+        }
+    }
+
+    private static int[] referenceScore(int code, int guess) {
+        var black = 0;
+        var codeColors = new int[8];
+        var guessColors = new int[8];
+        for (int pin = 0; pin < 4; pin++) {
+            var codePin = (code >>> (pin * 3)) & 7;
+            var guessPin = (guess >>> (pin * 3)) & 7;
+            if (codePin == guessPin) {
+                black++;
+            }
+            codeColors[codePin]++;
+            guessColors[guessPin]++;
+        }
+        var common = 0;
+        for (int color = 0; color < 8; color++) {
+            common += Math.min(codeColors[color], guessColors[color]);
+        }
+        return new int[]{black, common - black};
+    }
+}
@@ -0,0 +1,118 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.engine;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefetchingCodeGeneratorTest {
+    private final AtomicInteger generatedCodes = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final CodeGenerator delegate = () -> {
+        if (failures.getAndDecrement() > 0) {
+            throw new RuntimeException("Generator is down");
+        }
+        generatedCodes.incrementAndGet();
+        return CodeEncoding.unpack(42);
+    };
+    private final Queue<Runnable> pendingRefills = new ArrayDeque<>();
+
+    @Test
+    @DisplayName("Codes are taken from the buffer, which is refilled to the high watermark once it drops to the low watermark.")
+    void testRefillBetweenWatermarks() {
+        // Given a buffer that was filled up to the high watermark
+        var generator = new PrefetchingCodeGenerator(delegate, 2, 5, pendingRefills::add);
+        runRefills();
+        assertThat(generator.getBufferedCodes()).isEqualTo(5);
+
+        // When two codes are taken, the buffer is still above the low watermark
+        generator.generateCode();
+        generator.generateCode();
+
+        // Then no refill is requested
+        assertThat(pendingRefills).isEmpty();
+
+        // When one more code brings it down to the low watermark
+        generator.generateCode();
+        runRefills();
+
+        // Then it is refilled, and none of the codes were generated while a game was waiting
+        assertThat(generator.getBufferedCodes()).isEqualTo(5);
+        assertThat(generator.getRefills()).isEqualTo(2);
+        assertThat(generator.getRefilledCodes()).isEqualTo(8);
+        assertThat(generator.getUnderruns()).isZero();
+    }
+
+    @Test
+    @DisplayName("When the buffer is empty, the code is generated while the game waits, and a refill is requested.")
+    void testUnderrun() {
+        // Given a buffer that was never filled
+        var generator = new PrefetchingCodeGenerator(delegate, 2, 5, pendingRefills::add);
+
+        // When
+        var code = generator.generateCode();
+
+        // Then
+        assertThat(code).isEqualTo(CodeEncoding.unpack(42));
+        assertThat(generator.getUnderruns()).isEqualTo(1);
+        assertThat(generatedCodes).hasValue(1);
+        assertThat(pendingRefills).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("A failing generator stops the refill and is retried when the next code is taken.")
+    void testRefillFailure() {
+        // Given a generator that fails the batch and the single code after it
+        failures.set(2);
+        var generator = new PrefetchingCodeGenerator(delegate, 2, 5, pendingRefills::add);
+        runRefills();
+        assertThat(generator.getRefillFailures()).isEqualTo(1);
+
+        // When
+        generator.generateCode();
+        runRefills();
+
+        // Then
+        assertThat(generator.getBufferedCodes()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("When a batch of codes fails, the buffer is refilled with single codes.")
+    void testRefillWithoutBatches() {
+        // Given a generator that cannot generate batches
+        var singleCodes = new CodeGenerator() {
+            @Override
+            public Code generateCode() {
+                return delegate.generateCode();
+            }
+
+            @Override
+            public List<Code> generateCodes(int count) {
+                throw new IllegalStateException("Expected START_ARRAY but found START_OBJECT");
+            }
+        };
+
+        // When the buffer is filled
+        var generator = new PrefetchingCodeGenerator(singleCodes, 2, 5, pendingRefills::add);
+        runRefills();
+
+        // Then
+        assertThat(generator.getBufferedCodes()).isEqualTo(5);
+        assertThat(generator.getRefillFailures()).isZero();
+        assertThat(generatedCodes).hasValue(5);
+    }
+
+    private void runRefills() {
+        while (!pendingRefills.isEmpty()) {
+            pendingRefills.poll().run();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.events;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameEvent;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameEventBroadcasterTest {
+    private static final Code GUESS = Code.of(ColoredPin.RED, ColoredPin.RED, ColoredPin.BLUE, ColoredPin.BLUE);
+    private static final Duration NO_TIMEOUT = Duration.ZERO;
+
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    @Test
+    @DisplayName("The turns of a game go to the subscribers of that game and of all games, in order.")
+    void testFanOut() {
+        // Given subscribers to two games and to all games, sent to right away
+        var broadcaster = new GameEventBroadcaster(16, NO_TIMEOUT, Runnable::run, clock::get);
+        var game = UUID.randomUUID();
+        var otherGame = UUID.randomUUID();
+        var gameSink = new RecordingSink();
+        var otherGameSink = new RecordingSink();
+        var allGamesSink = new RecordingSink();
+        broadcaster.subscribe(game, gameSink);
+        broadcaster.subscribe(otherGame, otherGameSink);
+        broadcaster.subscribeToAll(allGamesSink);
+
+        // When two turns are played in the first game
+        broadcaster.onTurnPlayed(turn(game, 1, GameStatus.IN_PROGRESS));
+        broadcaster.onTurnPlayed(turn(game, 2, GameStatus.IN_PROGRESS));
+
+        // Then only the subscribers of that game and of all games get them
+        assertThat(gameSink.turns()).containsExactly(1, 2);
+        assertThat(allGamesSink.turns()).containsExactly(1, 2);
+        assertThat(otherGameSink.turns()).isEmpty();
+        assertThat(broadcaster.getPublishedEvents()).isEqualTo(2);
+        assertThat(broadcaster.getSentEvents()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("The subscription of a game ends after it is won or lost, the subscription of all games does not.")
+    void testSubscriptionEndsWithGame() {
+        // Given subscribers to a game and to all games
+        var broadcaster = new GameEventBroadcaster(16, NO_TIMEOUT, Runnable::run, clock::get);
+        var game = UUID.randomUUID();
+        var gameSink = new RecordingSink();
+        var allGamesSink = new RecordingSink();
+        broadcaster.subscribe(game, gameSink);
+        broadcaster.subscribeToAll(allGamesSink);
+
+        // When the game is won
+        broadcaster.onTurnPlayed(turn(game, 1, GameStatus.WON));
+
+        // Then the game subscriber gets the last turn and is closed
+        assertThat(gameSink.turns()).containsExactly(1);
+        assertThat(gameSink.closed).isTrue();
+        assertThat(allGamesSink.closed).isFalse();
+        assertThat(broadcaster.getSubscribers()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A subscriber that falls behind by more than its queue is disconnected, without holding up the others.")
+    void testSlowSubscriberIsDisconnected() {
+        // Given a subscriber whose events are not sent yet, and one that keeps up
+        var broadcaster = new GameEventBroadcaster(4, NO_TIMEOUT, pendingSends::add, clock::get);
+        var game = UUID.randomUUID();
+        var slowSink = new RecordingSink();
+        var fastSink = new RecordingSink();
+        broadcaster.subscribe(game, slowSink);
+        var fastBroadcaster = new GameEventBroadcaster(4, NO_TIMEOUT, Runnable::run, clock::get);
+        fastBroadcaster.subscribe(game, fastSink);
+
+        // When more turns are played than fit in the queue
+        for (int turn = 1; turn <= 5; turn++) {
+            broadcaster.onTurnPlayed(turn(game, turn, GameStatus.IN_PROGRESS));
+            fastBroadcaster.onTurnPlayed(turn(game, turn, GameStatus.IN_PROGRESS));
+        }
+        pendingSends.forEach(Runnable::run);
+
+        // Then the slow subscriber is closed and gets nothing more, while the other got every turn
+        assertThat(slowSink.closed).isTrue();
+        assertThat(slowSink.turns()).isEmpty();
+        assertThat(broadcaster.getSlowSubscribers()).isEqualTo(1);
+        assertThat(broadcaster.getSubscribers()).isZero();
+        assertThat(fastSink.turns()).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    @DisplayName("A sender sends one event at a time, so subscribers with many events take turns with the others.")
+    void testSubscribersTakeTurns() {
+        // Given two subscribers to all games, sent to by a single sender
+        var sends = new ArrayDeque<Runnable>();
+        var broadcaster = new GameEventBroadcaster(16, NO_TIMEOUT, sends::add, clock::get);
+        var first = new RecordingSink();
+        var second = new RecordingSink();
+        broadcaster.subscribeToAll(first);
+        broadcaster.subscribeToAll(second);
+        var game = UUID.randomUUID();
+
+        // When three turns are played
+        for (int turn = 1; turn <= 3; turn++) {
+            broadcaster.onTurnPlayed(turn(game, turn, GameStatus.IN_PROGRESS));
+        }
+
+        // Then every task sends a single event, and each subscriber is sent its first event before either gets a second
+        assertThat(sends).hasSize(2);
+        sends.poll().run();
+        sends.poll().run();
+        assertThat(first.turns()).containsExactly(1);
+        assertThat(second.turns()).containsExactly(1);
+        while (!sends.isEmpty()) {
+            sends.poll().run();
+        }
+        assertThat(first.turns()).containsExactly(1, 2, 3);
+        assertThat(second.turns()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    @DisplayName("A subscriber whose send takes longer than the send timeout is aborted, which frees its sender.")
+    void testStuckSubscriberIsAborted() throws Exception {
+        // Given a subscriber whose send blocks until its connection is aborted
+        var sender = Executors.newSingleThreadExecutor();
+        var broadcaster = new GameEventBroadcaster(16, Duration.ofSeconds(5), sender, clock::get);
+        var sending = new CountDownLatch(1);
+        RecordingSink stuckSink = new RecordingSink() {
+            private final CountDownLatch released = new CountDownLatch(1);
+
+            @Override
+            public void send(GameEvent event) throws IOException {
+                sending.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Connection aborted");
+            }
+
+            @Override
+            public void abort() {
+                super.abort();
+                released.countDown();
+            }
+        };
+        broadcaster.subscribeToAll(stuckSink);
+        broadcaster.onTurnPlayed(turn(UUID.randomUUID(), 1, GameStatus.IN_PROGRESS));
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When the timeout has not passed yet, nothing happens
+        clock.addAndGet(5000);
+        broadcaster.disconnectStuckSubscribers();
+        assertThat(stuckSink.aborted).isFalse();
+
+        // When it has passed
+        clock.addAndGet(1);
+        broadcaster.disconnectStuckSubscribers();
+
+        // Then the subscriber is aborted and the sender is free for others
+        assertThat(stuckSink.aborted).isTrue();
+        assertThat(broadcaster.getStuckSubscribers()).isEqualTo(1);
+        assertThat(broadcaster.getSubscribers()).isZero();
+        assertThat(sender.submit(() -> "free").get(5, TimeUnit.SECONDS)).isEqualTo("free");
+        sender.shutdown();
+    }
+
+    private static GameEvent turn(UUID gameId, int turn, GameStatus status) {
+        return new GameEvent(gameId, turn, GUESS, new Result(status == GameStatus.WON ? 4 : 1, 0), status);
+    }
+
+    private static class RecordingSink implements EventSink {
+        private final List<GameEvent> events = new ArrayList<>();
+        private boolean closed;
+        private volatile boolean aborted;
+
+        @Override
+        public void send(GameEvent event) throws IOException {
+            this.events.add(event);
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+
+        @Override
+        public void abort() {
+            this.aborted = true;
+        }
+
+        private List<Integer> turns() {
+            return this.events.stream().map(GameEvent::getTurn).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.EnumSet;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataFormatTest {
+    private final DataFormats formats = new DataFormats(ObjectMapper::new);
+
+    @Test
+    @DisplayName("The response format is the offered format with the highest quality, and JSON without one.")
+    void testNegotiation() {
+        var offered = EnumSet.allOf(DataFormat.class);
+
+        assertThat(DataFormat.negotiate(null, offered)).isEqualTo(DataFormat.JSON);
+        assertThat(DataFormat.negotiate("*/*", offered)).isEqualTo(DataFormat.JSON);
+        assertThat(DataFormat.negotiate("application/x-jackson-smile", offered)).isEqualTo(DataFormat.SMILE);
+        assertThat(DataFormat.negotiate("application/json;q=0.5, application/cbor", offered)).isEqualTo(DataFormat.CBOR);
+        assertThat(DataFormat.negotiate("application/cbor;q=0.2, application/json", offered)).isEqualTo(DataFormat.JSON);
+        assertThat(DataFormat.negotiate("application/x-jackson-smile, application/json;q=0.5", EnumSet.of(DataFormat.JSON)))
+                .isEqualTo(DataFormat.JSON);
+        assertThat(DataFormat.ofContentType("application/cbor; charset=utf-8")).isEqualTo(Optional.of(DataFormat.CBOR));
+        assertThat(DataFormat.ofContentType("text/plain")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Codes and results written by the codecs in each format read the same as those written by databind, and back.")
+    void testDomainWireFormat() throws Exception {
+        for (DataFormat format : DataFormat.values()) {
+            this.assertDomainWireFormat(format);
+        }
+    }
+
+    private void assertDomainWireFormat(DataFormat format) throws Exception {
+        // Given
+        var codecs = formats.codecsFor(format);
+        var mapper = codecs.getObjectMapper();
+        var code = Code.of(ColoredPin.RED, ColoredPin.BLUE, ColoredPin.YELLOW, ColoredPin.BLACK);
+        var result = new Result(2, 1);
+
+        // Then
+        assertThat(mapper.readTree(codecs.toJsonBytes(code))).isEqualTo(mapper.readTree(mapper.writeValueAsBytes(code)));
+        assertThat(mapper.readTree(codecs.toJsonBytes(result))).isEqualTo(mapper.readTree(mapper.writeValueAsBytes(result)));
+        assertThat(codecs.fromJson(new ByteArrayInputStream(mapper.writeValueAsBytes(code)), Code.class)).isSameAs(code);
+        var read = codecs.fromJson(new ByteArrayInputStream(mapper.writeValueAsBytes(result)), Result.class);
+        assertThat(read).usingRecursiveComparison().isEqualTo(result);
+    }
+}
@@ -0,0 +1,75 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeEncoding;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonCodecsTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonCodecs codecs = new JsonCodecs(objectMapper);
+
+    @Test
+    @DisplayName("Every code is written exactly as databind writes it, and read back as the same code.")
+    void testCodesHaveTheSameWireFormat() throws Exception {
+        for (int packed = 0; packed < CodeEncoding.NUMBER_OF_CODES; packed++) {
+            var code = CodeEncoding.unpack(packed);
+
+            var json = codecs.toJson(code);
+
+            assertThat(json).isEqualTo(objectMapper.writeValueAsString(code));
+            assertThat(codecs.fromJson(json, Code.class)).isSameAs(code);
+        }
+    }
+
+    @Test
+    @DisplayName("A result is written exactly as databind writes it, as a string and as bytes.")
+    void testResultHasTheSameWireFormat() throws Exception {
+        // Given
+        var result = new Result(1, 2);
+
+        // Then
+        assertThat(codecs.toJson(result)).isEqualTo(objectMapper.writeValueAsString(result));
+        assertThat(codecs.toJsonBytes(result)).isEqualTo(objectMapper.writeValueAsBytes(result));
+        var read = codecs.fromJson("{ \"whitePins\" : 2, \"blackPins\" : 1 }", Result.class);
+        assertThat(read.getBlackPins()).isEqualTo(1);
+        assertThat(read.getWhitePins()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A code with a missing pin, an unknown color or an unknown field is rejected.")
+    void testInvalidCodesAreRejected() {
+        assertThatThrownBy(() -> codecs.fromJson("{\"pin0\":\"RED\",\"pin1\":\"RED\",\"pin2\":\"RED\"}", Code.class))
+                .hasMessageContaining("four pins");
+        assertThatThrownBy(() -> codecs.fromJson("{\"pin0\":\"RED\",\"pin1\":\"RED\",\"pin2\":\"RED\",\"pin3\":\"PINK\"}", Code.class))
+                .hasMessageContaining("PINK");
+        assertThatThrownBy(() -> codecs.fromJson("{\"pin0\":\"RED\",\"pin1\":\"RED\",\"pin2\":\"RED\",\"pin3\":\"RED\",\"pin4\":\"RED\"}", Code.class))
+                .hasMessageContaining("pin4");
+    }
+
+    @Test
+    @DisplayName("Lists of codes are read with the codec, types without a codec go through databind.")
+    void testListsAndFallback() throws Exception {
+        // Given
+        var json = "[{\"pin0\":\"RED\",\"pin1\":\"BLUE\",\"pin2\":\"RED\",\"pin3\":\"BLUE\"},"
+                + "{\"pin0\":\"BLACK\",\"pin1\":\"WHITE\",\"pin2\":\"GREEN\",\"pin3\":\"YELLOW\"}]";
+
+        // When
+        var codes = codecs.listFromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Code.class);
+
+        // Then
+        assertThat(codes).isEqualTo(objectMapper.readerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Code.class)).readValue(json));
+        assertThat(codecs.toJson(Map.of("games", 3))).isEqualTo("{\"games\":3}");
+    }
+}
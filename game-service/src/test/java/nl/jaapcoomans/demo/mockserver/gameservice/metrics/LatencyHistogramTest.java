@@ -0,0 +1,62 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LatencyHistogram histogram = new LatencyHistogram(WINDOW, clock::get);
+
+    @Test
+    @DisplayName("Every latency falls in a bucket whose upper bound is at most an eighth above it.")
+    void testBucketBounds() {
+        for (long micros = 0; micros < 1_000_000; micros += 7) {
+            var upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(micros));
+            assertThat(upperBound).isGreaterThan(micros);
+            assertThat(upperBound).isLessThanOrEqualTo(Math.max(micros + 1, micros + micros / 8 + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("A percentile is the upper bound of the bucket that holds the latency of that rank.")
+    void testPercentile() {
+        // Given 90 fast and 10 slow latencies
+        for (int i = 0; i < 90; i++) {
+            histogram.record(Duration.ofMillis(2).toNanos());
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(Duration.ofMillis(100).toNanos());
+        }
+
+        // Then
+        assertThat(histogram.count()).isEqualTo(100);
+        assertThat(histogram.percentile(0.5)).isBetween(Duration.ofMillis(2), Duration.ofMillis(3));
+        assertThat(histogram.percentile(0.9)).isBetween(Duration.ofMillis(2), Duration.ofMillis(3));
+        assertThat(histogram.percentile(0.95)).isBetween(Duration.ofMillis(100), Duration.ofMillis(113));
+    }
+
+    @Test
+    @DisplayName("Latencies are forgotten two windows after they were recorded.")
+    void testWindowRotation() {
+        // Given
+        histogram.record(Duration.ofMillis(1).toNanos());
+
+        // When one window has passed, the latency still counts
+        clock.addAndGet(WINDOW.toNanos());
+        assertThat(histogram.count()).isEqualTo(1);
+
+        // When another window has passed
+        clock.addAndGet(WINDOW.toNanos());
+
+        // Then it is forgotten
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.percentile(0.99)).isEqualTo(Duration.ZERO);
+    }
+}
@@ -0,0 +1,105 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.outbox;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.TournamentService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TournamentOutboxTest {
+    @TempDir
+    Path directory;
+
+    private final List<UUID> reported = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicBoolean down = new AtomicBoolean();
+
+    private final TournamentService tournamentService = (gameId, result, guesses) -> {
+        if (down.get() || failures.getAndDecrement() > 0) {
+            throw new RuntimeException("Tournament service is down");
+        }
+        reported.add(gameId);
+    };
+
+    @Test
+    @DisplayName("A game result is reported in the background, and retried until the tournament service accepts it.")
+    void testRetry() throws IOException {
+        // Given a tournament service that fails three times
+        failures.set(3);
+
+        try (var outbox = createOutbox(1000)) {
+            // When
+            var gameId = UUID.randomUUID();
+            outbox.gameEnded(gameId, GameStatus.WON, 4);
+
+            // Then
+            awaitCondition(() -> reported.contains(gameId));
+            assertThat(outbox.getFailedSends()).isEqualTo(3);
+            assertThat(outbox.getSentResults()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Results that do not fit in the queue, or are undelivered when the outbox closes, are delivered after a restart.")
+    void testSpillAndRestart() throws IOException {
+        // Given a tournament service that is down and an outbox with a small queue
+        down.set(true);
+        var gameIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        try (var outbox = createOutbox(1)) {
+            gameIds.forEach(gameId -> outbox.gameEnded(gameId, GameStatus.LOST, 10));
+            assertThat(outbox.getOverflows()).isPositive();
+        }
+        assertThat(reported).isEmpty();
+
+        // When the service is up again and the outbox is reopened
+        down.set(false);
+        try (var outbox = createOutbox(1)) {
+            // Then every result is delivered exactly once
+            awaitCondition(() -> reported.size() == gameIds.size());
+            assertThat(reported).containsExactlyInAnyOrderElementsOf(gameIds);
+            assertThat(outbox.getSpilledResults()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("A result that arrives after the outbox closed is dropped instead of failing the guess.")
+    void testResultAfterClose() throws IOException {
+        // Given a closed outbox
+        var outbox = createOutbox(10);
+        outbox.close();
+
+        // When a game ends
+        outbox.gameEnded(UUID.randomUUID(), GameStatus.WON, 3);
+
+        // Then its result is dropped
+        assertThat(outbox.getDroppedResults()).isEqualTo(1);
+        assertThat(reported).isEmpty();
+    }
+
+    private TournamentOutbox createOutbox(int capacity) throws IOException {
+        return new TournamentOutbox(tournamentService, directory, capacity, 10,
+                Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofMillis(100));
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        var deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("Condition not met in time").isLessThan(deadline);
+            LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+        }
+    }
+}
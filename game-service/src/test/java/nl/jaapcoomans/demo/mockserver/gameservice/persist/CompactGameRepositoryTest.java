@@ -0,0 +1,127 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Turn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactGameRepositoryTest {
+    private static final Random RND = new SecureRandom();
+
+    private final CompactGameRepository repository = new CompactGameRepository(4);
+
+    @Test
+    @DisplayName("A game read back from the compact store has the same code, turns and status as the stored game.")
+    void testRoundTrip() {
+        // Given games with every possible number of turns, enough to make the stripes grow
+        var games = new ArrayList<Game>();
+        for (int i = 0; i < 1000; i++) {
+            var game = createAGame(i % 11);
+            repository.persist(game);
+            games.add(game);
+        }
+
+        // Then every game is read back unchanged
+        for (Game game : games) {
+            var stored = repository.findById(game.getId()).orElseThrow();
+            assertThat(stored.getSecretCode()).isEqualTo(game.getSecretCode());
+            assertThat(stored.getStatus()).isEqualTo(game.getStatus());
+            assertThat(stored.getTurns()).hasSameSizeAs(game.getTurns());
+            for (int turn = 0; turn < game.getTurns().size(); turn++) {
+                var expected = game.getTurns().get(turn);
+                var actual = stored.getTurns().get(turn);
+                assertThat(actual.getGuess()).isEqualTo(expected.getGuess());
+                assertThat(actual.getResult().getBlackPins()).isEqualTo(expected.getResult().getBlackPins());
+                assertThat(actual.getResult().getWhitePins()).isEqualTo(expected.getResult().getWhitePins());
+            }
+        }
+        assertThat(repository.size()).isEqualTo(1000);
+        assertThat(repository.findAll()).hasSize(1000);
+        assertThat(repository.findById(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Walking the pages of the compact store returns every game once, in the order of their ids.")
+    void testPaging() {
+        // Given
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < 250; i++) {
+            var game = createAGame(i % 11);
+            repository.persist(game);
+            ids.add(game.getId());
+        }
+        ids.sort(Comparator.naturalOrder());
+
+        // When
+        var pagedIds = new ArrayList<UUID>();
+        var page = PageRequest.first(100);
+        List<Game> games;
+        do {
+            games = repository.findPage(page);
+            games.forEach(game -> pagedIds.add(game.getId()));
+            if (!games.isEmpty()) {
+                page = page.next(games.get(games.size() - 1).getId());
+            }
+        } while (games.size() == page.getLimit());
+
+        // Then
+        assertThat(pagedIds).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    @DisplayName("Queries by status read the status from the encoded games and follow a game that is finished.")
+    void testStatusQueries() {
+        // Given a game in progress and a lost game
+        var code = createACode();
+        var playedGame = Game.restore(UUID.randomUUID(), code, List.of(new Turn(createACode(), new Result(1, 0))));
+        var lostGame = createAGame(10);
+        repository.persist(playedGame);
+        repository.persist(lostGame);
+
+        // When the game in progress is won
+        var wonGame = Game.restore(playedGame.getId(), code, List.of(
+                new Turn(createACode(), new Result(1, 0)), new Turn(code, new Result(4, 0))));
+        repository.persist(wonGame);
+
+        // Then
+        assertThat(repository.countByStatus(GameStatus.IN_PROGRESS)).isZero();
+        assertThat(repository.countByStatus(GameStatus.WON)).isEqualTo(1);
+        assertThat(repository.countByStatus(GameStatus.LOST)).isEqualTo(1);
+        assertThat(repository.findByStatus(GameStatus.WON, PageRequest.first(10)))
+                .extracting(Game::getId).containsExactly(wonGame.getId());
+        assertThat(repository.findByStatus(GameStatus.LOST, PageRequest.first(10)))
+                .extracting(Game::getId).containsExactly(lostGame.getId());
+        assertThat(repository.findByStatus(GameStatus.IN_PROGRESS, PageRequest.first(10))).isEmpty();
+    }
+
+    private static Game createAGame(int numberOfTurns) {
+        var turns = new ArrayList<Turn>();
+        for (int i = 0; i < numberOfTurns; i++) {
+            var blackPins = RND.nextInt(4);
+            turns.add(new Turn(createACode(), new Result(blackPins, RND.nextInt(5 - blackPins))));
+        }
+        return Game.restore(UUID.randomUUID(), createACode(), turns);
+    }
+
+    private static Code createACode() {
+        return new Code(pickAColor(), pickAColor(), pickAColor(), pickAColor());
+    }
+
+    private static ColoredPin pickAColor() {
+        return ColoredPin.values()[RND.nextInt(ColoredPin.values().length)];
+    }
+}
@@ -0,0 +1,111 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryGameRepositoryTest {
+    private static final Duration FINISHED_TTL = Duration.ofMinutes(5);
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private final InMemoryGameRepository repository = new InMemoryGameRepository(
+            new GameRetention(FINISHED_TTL, IDLE_TIMEOUT, Duration.ofSeconds(1)), clock::get);
+
+    @Test
+    @DisplayName("A finished game is evicted once its TTL has passed.")
+    void testFinishedGameExpires() {
+        // Given a game that was won
+        var game = createAGame(GameStatus.WON);
+        repository.persist(game);
+
+        // When just less than the TTL has passed, the game is still there
+        advanceClock(FINISHED_TTL.minusSeconds(1));
+        assertThat(repository.findById(game.getId())).isPresent();
+
+        // When the TTL has passed
+        advanceClock(Duration.ofSeconds(2));
+
+        // Then the game is evicted and counted as a finished game
+        assertThat(repository.findById(game.getId())).isEmpty();
+        assertThat(repository.getEvictedFinishedGames()).isEqualTo(1);
+        assertThat(repository.getEvictedIdleGames()).isZero();
+    }
+
+    @Test
+    @DisplayName("A game in progress is evicted only after it has been idle for the idle timeout.")
+    void testIdleGameExpires() {
+        // Given a game in progress
+        var game = createAGame(GameStatus.IN_PROGRESS);
+        repository.persist(game);
+
+        // When a turn is played just before the idle timeout
+        advanceClock(IDLE_TIMEOUT.minusMinutes(1));
+        repository.persist(game);
+        advanceClock(Duration.ofMinutes(2));
+
+        // Then the game is kept
+        assertThat(repository.findById(game.getId())).isPresent();
+
+        // When the game stays idle for the full timeout after its last turn
+        advanceClock(IDLE_TIMEOUT);
+
+        // Then it is evicted as an idle game
+        assertThat(repository.findById(game.getId())).isEmpty();
+        assertThat(repository.getEvictedIdleGames()).isEqualTo(1);
+        assertThat(repository.getEvictedFinishedGames()).isZero();
+    }
+
+    @Test
+    @DisplayName("The status index follows status changes and evictions, and counts the games per status.")
+    void testStatusIndex() {
+        // Given two games in progress and one that was lost
+        var first = createAGame(GameStatus.IN_PROGRESS);
+        var second = createAGame(GameStatus.IN_PROGRESS);
+        repository.persist(first);
+        repository.persist(second);
+        repository.persist(createAGame(GameStatus.LOST));
+
+        // When the first game is won
+        when(first.getStatus()).thenReturn(GameStatus.WON);
+        repository.persist(first);
+
+        // Then it moved from one status to the other
+        assertThat(repository.countByStatus(GameStatus.IN_PROGRESS)).isEqualTo(1);
+        assertThat(repository.countByStatus(GameStatus.WON)).isEqualTo(1);
+        assertThat(repository.countByStatus(GameStatus.LOST)).isEqualTo(1);
+        assertThat(repository.findByStatus(GameStatus.IN_PROGRESS, PageRequest.first(10))).containsExactly(second);
+        assertThat(repository.findByStatus(GameStatus.WON, PageRequest.first(10))).containsExactly(first);
+
+        // When the finished games expire
+        advanceClock(FINISHED_TTL.plusSeconds(1));
+
+        // Then they are no longer indexed
+        assertThat(repository.countByStatus(GameStatus.WON)).isZero();
+        assertThat(repository.countByStatus(GameStatus.LOST)).isZero();
+        assertThat(repository.findByStatus(GameStatus.WON, PageRequest.first(10))).isEmpty();
+    }
+
+    private void advanceClock(Duration duration) {
+        clock.addAndGet(duration.toMillis());
+        repository.expireGames();
+    }
+
+    private static Game createAGame(GameStatus status) {
+        var game = mock(Game.class);
+        when(game.getId()).thenReturn(UUID.randomUUID());
+        when(game.getStatus()).thenReturn(status);
+        return game;
+    }
+}
@@ -0,0 +1,103 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Turn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalingGameRepositoryTest {
+    private static final Code CODE = new Code(ColoredPin.RED, ColoredPin.GREEN, ColoredPin.BLUE, ColoredPin.YELLOW);
+    private static final Code WRONG_GUESS = new Code(ColoredPin.RED, ColoredPin.RED, ColoredPin.RED, ColoredPin.RED);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Games and their turns survive a restart, from the journal alone and from a snapshot plus journal tail.")
+    void testRecoverFromSnapshotAndJournal() throws IOException {
+        // Given a repository with a game that was played before and after a snapshot, and one that was won
+        var playedGame = restoredGame(3);
+        var wonGame = Game.restore(UUID.randomUUID(), CODE, List.of(new Turn(CODE, new Result(4, 0))));
+
+        try (var repository = JournalingGameRepository.open(settings())) {
+            repository.persist(playedGame);
+            repository.snapshot();
+            playedGame = withExtraTurn(playedGame);
+            repository.persist(playedGame);
+            repository.persist(wonGame);
+        }
+
+        // When the repository is opened again
+        try (var repository = JournalingGameRepository.open(settings())) {
+            // Then both games are back with all their turns
+            var recoveredPlayedGame = repository.findById(playedGame.getId()).orElseThrow();
+            assertThat(recoveredPlayedGame.getTurns()).hasSize(4);
+            assertThat(recoveredPlayedGame.getStatus()).isEqualTo(GameStatus.IN_PROGRESS);
+            assertThat(recoveredPlayedGame.getSecretCode()).isEqualTo(CODE);
+
+            var recoveredWonGame = repository.findById(wonGame.getId()).orElseThrow();
+            assertThat(recoveredWonGame.getStatus()).isEqualTo(GameStatus.WON);
+            assertThat(repository.findAll()).hasSize(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Journal segments are rolled over when full and replayed in order.")
+    void testRecoverAcrossSegments() throws IOException {
+        // Given a journal with segments that only fit a handful of records
+        var games = new ArrayList<Game>();
+        try (var repository = JournalingGameRepository.open(settings(256))) {
+            for (int i = 0; i < 50; i++) {
+                var game = restoredGame(i % 10);
+                repository.persist(game);
+                games.add(game);
+            }
+        }
+
+        // When the repository is opened again
+        try (var repository = JournalingGameRepository.open(settings(256))) {
+            // Then every game has been recovered with the turns it had
+            for (Game game : games) {
+                var recovered = repository.findById(game.getId()).orElseThrow();
+                assertThat(recovered.getTurns()).hasSameSizeAs(game.getTurns());
+                assertThat(recovered.getStatus()).isEqualTo(game.getStatus());
+            }
+        }
+    }
+
+    private JournalSettings settings() {
+        return settings(1024 * 1024);
+    }
+
+    private JournalSettings settings(int segmentSize) {
+        return new JournalSettings(directory, segmentSize, Duration.ZERO, Duration.ofHours(1));
+    }
+
+    private static Game restoredGame(int numberOfTurns) {
+        var turns = new ArrayList<Turn>();
+        for (int i = 0; i < numberOfTurns; i++) {
+            turns.add(new Turn(WRONG_GUESS, new Result(1, 0)));
+        }
+        return Game.restore(UUID.randomUUID(), CODE, turns);
+    }
+
+    private static Game withExtraTurn(Game game) {
+        var turns = new ArrayList<>(game.getTurns());
+        turns.add(new Turn(WRONG_GUESS, new Result(1, 0)));
+        return Game.restore(game.getId(), game.getSecretCode(), turns);
+    }
+}
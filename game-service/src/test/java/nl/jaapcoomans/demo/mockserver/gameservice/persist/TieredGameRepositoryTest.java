@@ -0,0 +1,69 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.PageRequest;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Turn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredGameRepositoryTest {
+    private static final Code CODE = new Code(ColoredPin.RED, ColoredPin.GREEN, ColoredPin.BLUE, ColoredPin.YELLOW);
+    private static final Code WRONG_GUESS = new Code(ColoredPin.RED, ColoredPin.RED, ColoredPin.RED, ColoredPin.RED);
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Finished games and idle games are spilled to disk and faulted back in when read.")
+    void testSpillAndFault() throws IOException {
+        try (var repository = new TieredGameRepository(directory, IDLE_TIMEOUT, clock::get)) {
+            // Given a won game and a game in progress
+            var wonGame = Game.restore(UUID.randomUUID(), CODE, List.of(new Turn(CODE, new Result(4, 0))));
+            var playedGame = Game.restore(UUID.randomUUID(), CODE, List.of(new Turn(WRONG_GUESS, new Result(1, 0))));
+            repository.persist(wonGame);
+            repository.persist(playedGame);
+
+            // Then the won game is spilled right away
+            assertThat(repository.getHotGames()).isEqualTo(1);
+            assertThat(repository.getColdGames()).isEqualTo(1);
+
+            // When the game in progress stays idle for the timeout
+            clock.addAndGet(IDLE_TIMEOUT.plusSeconds(10).toMillis());
+            repository.spillIdleGames();
+
+            // Then it is spilled too
+            assertThat(repository.getHotGames()).isZero();
+            assertThat(repository.getColdGames()).isEqualTo(2);
+
+            // And both games can still be read, the game in progress moves back to the heap
+            assertThat(repository.findById(wonGame.getId()).orElseThrow().getStatus()).isEqualTo(GameStatus.WON);
+            var faultedGame = repository.findById(playedGame.getId()).orElseThrow();
+            assertThat(faultedGame.getTurns()).hasSize(1);
+            assertThat(repository.getHotGames()).isEqualTo(1);
+            assertThat(repository.findAll()).hasSize(2);
+
+            // And the faulted game is counted once, although its stale copy is still in the cold store
+            assertThat(repository.countByStatus(GameStatus.IN_PROGRESS)).isEqualTo(1);
+            assertThat(repository.countByStatus(GameStatus.WON)).isEqualTo(1);
+            assertThat(repository.findByStatus(GameStatus.IN_PROGRESS, PageRequest.first(10)))
+                    .extracting(Game::getId).containsExactly(playedGame.getId());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.persist;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+    private static final long START = 1_000_000L;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 16, START);
+
+    @Test
+    @DisplayName("Rescheduling a key keeps a single entry in the wheel, which expires at the latest deadline.")
+    void testRescheduleKeepsOneEntry() {
+        // Given a key that is rescheduled further and further ahead, past a full revolution of the wheel
+        for (int second = 0; second < 40; second++) {
+            wheel.advance(START + second * 1000L, key -> {
+            });
+            wheel.schedule("game", Duration.ofSeconds(30), START + second * 1000L);
+        }
+
+        // Then there is a single entry, and the key expires only at its last deadline
+        assertThat(wheel.queuedEntries()).isEqualTo(1);
+        var expired = new ArrayList<String>();
+        wheel.advance(START + 68_000L, expired::add);
+        assertThat(expired).isEmpty();
+        wheel.advance(START + 70_000L, expired::add);
+        assertThat(expired).containsExactly("game");
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.queuedEntries()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rescheduling a key to an earlier deadline moves its entry, so it expires at the earlier deadline.")
+    void testRescheduleEarlier() {
+        // Given a key that was scheduled far ahead, and then rescheduled to a shorter delay
+        wheel.schedule("game", Duration.ofSeconds(100), START);
+        wheel.schedule("game", Duration.ofSeconds(5), START);
+
+        // When the shorter delay has passed
+        var expired = new ArrayList<String>();
+        wheel.advance(START + 5_000L, expired::add);
+
+        // Then the key expired, and nothing is left behind
+        assertThat(expired).containsExactly("game");
+        assertThat(wheel.queuedEntries()).isZero();
+    }
+}
@@ -0,0 +1,62 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.JsonCodecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON of one guess between databind and the codecs: reading the guess from the request, writing the body
+ * of the check, reading the answer of the checker and writing the result in the response.
+ * <p>
+ * Run with {@code java --enable-preview -cp <test classpath> org.openjdk.jmh.Main JsonCodecsBenchmark -prof gc} to see
+ * the bytes allocated per guess next to the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class JsonCodecsBenchmark {
+    private static final Code CODE = Code.of(ColoredPin.RED, ColoredPin.RED, ColoredPin.BLUE, ColoredPin.BLUE);
+    private static final String GUESS = "{\"pin0\":\"RED\",\"pin1\":\"BLUE\",\"pin2\":\"RED\",\"pin3\":\"BLUE\"}";
+    private static final byte[] ANSWER = "{\"blackPins\":2,\"whitePins\":2}".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonCodecs codecs = new JsonCodecs(this.objectMapper)
+            .registerWriter(CodeGuessBody.class, new CodeGuessBodyWriter())
+            .register(ResultResponse.class, new ResultResponseCodec());
+
+    @Benchmark
+    public void databind(Blackhole blackhole) throws IOException {
+        var guess = this.objectMapper.readValue(GUESS, Code.class);
+        blackhole.consume(this.objectMapper.writeValueAsBytes(new CodeGuessBody(CODE, guess)));
+        var answer = this.objectMapper.readValue(new ByteArrayInputStream(ANSWER), ResultResponse.class);
+        blackhole.consume(this.objectMapper.writeValueAsString(answer.toResult()));
+    }
+
+    @Benchmark
+    public void codecs(Blackhole blackhole) throws IOException {
+        var guess = this.codecs.fromJson(GUESS, Code.class);
+        blackhole.consume(this.codecs.toJsonBytes(new CodeGuessBody(CODE, guess)));
+        var answer = this.codecs.fromJson(new ByteArrayInputStream(ANSWER), ResultResponse.class);
+        blackhole.consume(this.codecs.toJson(answer.toResult()));
+    }
+}
@@ -0,0 +1,128 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import feign.AsyncClient;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancingAsyncClientTest {
+    private static final String FIRST = "http://checker-1:8082";
+    private static final String SECOND = "http://checker-2:8082";
+    private static final Duration EJECTION = Duration.ofSeconds(10);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final StubClient stub = new StubClient();
+    private final LoadBalancingAsyncClient client =
+            new LoadBalancingAsyncClient(stub, List.of(FIRST, SECOND), 3, EJECTION, clock::get);
+
+    @Test
+    @DisplayName("A request goes to the instance with the fewest requests outstanding.")
+    void testLeastBusyInstanceIsChosen() {
+        // Given a request to one of the instances that has not been answered yet
+        stub.answering = false;
+        execute();
+        var busy = hostOf(stub.requests.get(0));
+
+        // When another request is made
+        execute();
+
+        // Then it goes to the other instance, with the path of the request kept
+        assertThat(hostOf(stub.requests.get(1))).isNotEqualTo(busy);
+        assertThat(stub.requests.get(1).url()).endsWith("/check");
+    }
+
+    @Test
+    @DisplayName("An instance is ejected after consecutive failures, and re-admitted when a probe succeeds.")
+    void testEjectionAndReadmission() {
+        // Given an instance that fails every request
+        stub.failing = SECOND;
+        for (int i = 0; i < 20 && client.getEjections() == 0; i++) {
+            execute();
+        }
+        assertThat(client.getHealthyEndpoints()).isEqualTo(1);
+
+        // When more requests are made during the ejection
+        stub.requests.clear();
+        for (int i = 0; i < 10; i++) {
+            execute();
+        }
+
+        // Then they all go to the healthy instance
+        assertThat(stub.requests).allSatisfy(request -> assertThat(request.url()).startsWith(FIRST));
+
+        // When the ejection has passed and the instance recovered
+        clock.addAndGet(EJECTION.toMillis());
+        stub.failing = null;
+        stub.requests.clear();
+        execute();
+
+        // Then the instance is probed first, and re-admitted
+        assertThat(stub.requests.get(0).url()).startsWith(SECOND);
+        assertThat(client.getHealthyEndpoints()).isEqualTo(2);
+        assertThat(client.getReadmissions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A failing probe ejects the instance again.")
+    void testFailingProbe() {
+        // Given an ejected instance
+        stub.failing = SECOND;
+        for (int i = 0; i < 20 && client.getEjections() == 0; i++) {
+            execute();
+        }
+
+        // When the probe after the ejection fails
+        clock.addAndGet(EJECTION.toMillis());
+        execute();
+
+        // Then the instance stays ejected for another period
+        assertThat(client.getHealthyEndpoints()).isEqualTo(1);
+        assertThat(client.getReadmissions()).isZero();
+        stub.requests.clear();
+        execute();
+        assertThat(stub.requests.get(0).url()).startsWith(FIRST);
+    }
+
+    private void execute() {
+        var request = Request.create(Request.HttpMethod.POST, FIRST + "/check", new HashMap<>(),
+                "{}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+        client.execute(request, new Request.Options(), Optional.empty());
+    }
+
+    private static String hostOf(Request request) {
+        return request.url().substring(0, request.url().lastIndexOf("/check"));
+    }
+
+    // Answers right away, with a 503 from the failing instance, unless it is told not to answer at all.
+    private static class StubClient implements AsyncClient<Object> {
+        private final List<Request> requests = new ArrayList<>();
+        private boolean answering = true;
+        private String failing;
+
+        @Override
+        public CompletableFuture<Response> execute(Request request, Request.Options options, Optional<Object> requestContext) {
+            this.requests.add(request);
+            if (!this.answering) {
+                return new CompletableFuture<>();
+            }
+            var failed = this.failing != null && request.url().startsWith(this.failing);
+            return CompletableFuture.completedFuture(response(request, failed ? 503 : 200));
+        }
+
+        private static Response response(Request request, int status) {
+            return Response.builder().request(request).status(status).headers(new HashMap<>()).build();
+        }
+    }
+}
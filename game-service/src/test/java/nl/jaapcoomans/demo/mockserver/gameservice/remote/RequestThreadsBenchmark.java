@@ -0,0 +1,127 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import feign.Logger;
+import nl.jaapcoomans.demo.mockserver.gameservice.VirtualThreads;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the request threads of the service when every request blocks on a slow remote code checker: a pool of
+ * platform threads the size of the default Jetty pool against a virtual thread per request. Each invocation plays
+ * {@code concurrency} requests at once against a stand-in checker that answers after {@code latencyMillis}.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.openjdk.jmh.Main RequestThreadsBenchmark}; the virtual mode needs
+ * Java 21 or newer, where virtual threads are final, and fails its setup on older versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestThreadsBenchmark {
+    private static final int JETTY_DEFAULT_MAX_THREADS = 200;
+    private static final Code CODE = Code.of(ColoredPin.RED, ColoredPin.RED, ColoredPin.BLUE, ColoredPin.BLUE);
+    private static final Code GUESS = Code.of(ColoredPin.RED, ColoredPin.BLUE, ColoredPin.RED, ColoredPin.BLUE);
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000"})
+    public int concurrency;
+
+    @Param({"50"})
+    public int latencyMillis;
+
+    private HttpServer standIn;
+    private ExecutorService requestThreads;
+    private ExecutorService callExecutor;
+    private CodeChecker checker;
+
+    @Setup(Level.Trial)
+    public void startStandInAndClient() throws IOException {
+        this.standIn = HttpServer.create(new InetSocketAddress("localhost", 0), this.concurrency);
+        this.standIn.setExecutor(Executors.newCachedThreadPool());
+        this.standIn.createContext("/check", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            sleep(this.latencyMillis);
+            var response = "{\"blackPins\":1,\"whitePins\":2}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        this.standIn.start();
+
+        if ("virtual".equals(this.threads)) {
+            this.requestThreads = VirtualThreads.newThreadPerTaskExecutor("request");
+            this.callExecutor = VirtualThreads.newThreadPerTaskExecutor("remote-call");
+        } else {
+            this.requestThreads = Executors.newFixedThreadPool(JETTY_DEFAULT_MAX_THREADS);
+        }
+
+        var url = "http://localhost:" + this.standIn.getAddress().getPort();
+        var settings = new RemoteServiceSettings(List.of(url), Duration.ofSeconds(5), Duration.ofSeconds(30),
+                this.concurrency, Duration.ofMinutes(1), Logger.Level.NONE, 3, Duration.ofSeconds(10), DataFormat.JSON);
+        this.checker = new RemoteServiceClientFactory(new DataFormats(ObjectMapper::new), this.callExecutor, settings, settings, settings)
+                .createCodeCheckerClient();
+    }
+
+    @Benchmark
+    public int blockingRequests() throws Exception {
+        var requests = new ArrayList<Future<?>>(this.concurrency);
+        for (int i = 0; i < this.concurrency; i++) {
+            requests.add(this.requestThreads.submit(() -> this.checker.checkCode(CODE, GUESS)));
+        }
+        for (Future<?> request : requests) {
+            request.get();
+        }
+        return requests.size();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        this.requestThreads.shutdownNow();
+        if (this.callExecutor != null) {
+            this.callExecutor.shutdownNow();
+        }
+        this.standIn.stop(0);
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
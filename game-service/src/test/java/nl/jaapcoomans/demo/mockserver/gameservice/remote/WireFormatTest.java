@@ -0,0 +1,71 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.remote;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WireFormatTest {
+    private static final Code CODE = Code.of(ColoredPin.RED, ColoredPin.RED, ColoredPin.BLUE, ColoredPin.BLUE);
+    private static final Code GUESS = Code.of(ColoredPin.GREEN, ColoredPin.RED, ColoredPin.WHITE, ColoredPin.BLUE);
+
+    private final DataFormats formats = new DataFormats(ObjectMapper::new)
+            .registerWriter(CodeGuessBody.class, new CodeGuessBodyWriter())
+            .register(ResultResponse.class, new ResultResponseCodec());
+
+    @Test
+    @DisplayName("Every body sent to a remote is written in each format as databind writes it, and every answer read.")
+    void testRemoteDTOs() throws Exception {
+        for (DataFormat format : DataFormat.values()) {
+            this.assertRemoteDTOs(format);
+        }
+    }
+
+    private void assertRemoteDTOs(DataFormat format) throws Exception {
+        // Given
+        var codecs = formats.codecsFor(format);
+        var mapper = codecs.getObjectMapper();
+
+        // Then the request bodies are the same
+        for (Object body : List.of(new CodeGuessBody(CODE, GUESS), new GameEndedBody(UUID.randomUUID(), GameStatus.LOST, 10))) {
+            assertThat(mapper.readTree(codecs.toJsonBytes(body))).isEqualTo(mapper.readTree(mapper.writeValueAsBytes(body)));
+        }
+
+        // And the answers of the checker and the generator are read
+        var answer = codecs.fromJson(new ByteArrayInputStream(mapper.writeValueAsBytes(new Result(3, 0))), ResultResponse.class);
+        assertThat(answer.getBlackPins()).isEqualTo(3);
+        assertThat(answer.getWhitePins()).isZero();
+        var codes = codecs.listFromJson(new ByteArrayInputStream(mapper.writeValueAsBytes(List.of(CODE, GUESS))), Code.class);
+        assertThat(codes).containsExactly(CODE, GUESS);
+    }
+
+    @Test
+    @DisplayName("Request bodies switch to the preferred format only after the remote answered in it.")
+    void testFormatNegotiation() {
+        // Given
+        var negotiation = new FormatNegotiation(DataFormat.SMILE);
+
+        // Then the remote is asked for Smile, but sent JSON
+        assertThat(negotiation.getAccept()).isEqualTo("application/x-jackson-smile, application/json;q=0.5");
+        assertThat(negotiation.getRequestFormat()).isEqualTo(DataFormat.JSON);
+
+        // When it answers in JSON, nothing changes
+        negotiation.onResponse(DataFormat.JSON);
+        assertThat(negotiation.getRequestFormat()).isEqualTo(DataFormat.JSON);
+
+        // When it answers in Smile, the bodies are sent in Smile as well
+        negotiation.onResponse(DataFormat.SMILE);
+        assertThat(negotiation.getRequestFormat()).isEqualTo(DataFormat.SMILE);
+    }
+}
@@ -0,0 +1,91 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(5);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final CircuitBreaker breaker = new CircuitBreaker(3, OPEN_DURATION, 1, clock::get);
+
+    @Test
+    @DisplayName("The breaker opens after the threshold of consecutive failures, a success in between resets the count.")
+    void testOpensAfterConsecutiveFailures() {
+        // Given two failures, a success and two more failures
+        fail(2);
+        succeed();
+        fail(2);
+
+        // Then the breaker is still closed
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // When a third consecutive failure happens
+        fail(1);
+
+        // Then the breaker is open and rejects calls
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getTransitionsTo(CircuitBreaker.State.OPEN)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("After the open duration a single probe is let through, which closes the breaker when it succeeds.")
+    void testHalfOpenProbeCloses() {
+        // Given an open breaker
+        fail(3);
+
+        // When the open duration has passed
+        clock.addAndGet(OPEN_DURATION.toMillis());
+
+        // Then one probe is allowed, and a second call has to wait for its outcome
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        // When the probe succeeds
+        breaker.onSuccess();
+
+        // Then the breaker is closed again
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getTransitionsTo(CircuitBreaker.State.HALF_OPEN)).isEqualTo(1);
+        assertThat(breaker.getTransitionsTo(CircuitBreaker.State.CLOSED)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A probe that fails opens the breaker for another open duration.")
+    void testHalfOpenProbeReopens() {
+        // Given a breaker that let a probe through
+        fail(3);
+        clock.addAndGet(OPEN_DURATION.toMillis());
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        // When the probe fails
+        breaker.onFailure();
+
+        // Then the breaker is open until a full open duration has passed again
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        clock.addAndGet(OPEN_DURATION.toMillis() - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+        clock.addAndGet(1);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    private void succeed() {
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess();
+    }
+}
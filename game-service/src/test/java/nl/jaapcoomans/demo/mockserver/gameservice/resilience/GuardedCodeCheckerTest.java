@@ -0,0 +1,64 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeChecker;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Result;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GuardedCodeCheckerTest {
+    private static final Code CODE = new Code(ColoredPin.RED, ColoredPin.GREEN, ColoredPin.BLUE, ColoredPin.YELLOW);
+    private static final Code GUESS = new Code(ColoredPin.RED, ColoredPin.RED, ColoredPin.RED, ColoredPin.RED);
+
+    private final CodeChecker delegate = mock(CodeChecker.class);
+    private final RemoteGuard guard = new RemoteGuard("code checker", new CircuitBreaker(5, Duration.ofMinutes(1), 1), 10);
+    private final GuardedCodeChecker checker = new GuardedCodeChecker(delegate, guard);
+
+    @Test
+    @DisplayName("A failed batch fails as a whole, it is not retried with single calls.")
+    void testFailedBatchIsNotRetried() {
+        // Given
+        when(delegate.checkCodesAsync(any(), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        // When
+        var exception = catchThrowable(() -> checker.checkCodesAsync(List.of(CODE, CODE), List.of(GUESS, GUESS)).join());
+
+        // Then
+        assertThat(exception).hasCauseInstanceOf(ServiceUnavailableException.class);
+        verify(delegate, never()).checkCodeAsync(any(), any());
+        assertThat(guard.getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Without a batch endpoint, batches are checked with one guarded call per guess.")
+    void testNoBatchEndpointFallsBackToGuardedSingleCalls() {
+        // Given a checker that answers a batch with no results
+        when(delegate.checkCodesAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(delegate.checkCodeAsync(CODE, GUESS)).thenReturn(CompletableFuture.completedFuture(new Result(1, 0)));
+
+        // When two batches are checked
+        var first = checker.checkCodesAsync(List.of(CODE, CODE), List.of(GUESS, GUESS)).join();
+        var second = checker.checkCodesAsync(List.of(CODE), List.of(GUESS)).join();
+
+        // Then the batch endpoint is only tried once, and every guess is checked with a call of its own
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(1);
+        verify(delegate, times(1)).checkCodesAsync(any(), any());
+        verify(delegate, times(3)).checkCodeAsync(CODE, GUESS);
+        assertThat(guard.getLatencies().count()).isEqualTo(4);
+    }
+}
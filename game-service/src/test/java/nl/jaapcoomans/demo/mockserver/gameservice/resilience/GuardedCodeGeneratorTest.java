@@ -0,0 +1,50 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Code;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.CodeGenerator;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.ColoredPin;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GuardedCodeGeneratorTest {
+    private static final Code CODE = new Code(ColoredPin.RED, ColoredPin.GREEN, ColoredPin.BLUE, ColoredPin.YELLOW);
+
+    private final CodeGenerator delegate = mock(CodeGenerator.class);
+    private final RemoteGuard guard = new RemoteGuard("code generator", new CircuitBreaker(5, Duration.ofMinutes(1), 1), 10);
+    private final GuardedCodeGenerator generator = new GuardedCodeGenerator(delegate, guard);
+
+    @Test
+    @DisplayName("A failed batch fails as a whole, without a batch endpoint codes are generated with guarded single calls.")
+    void testBatchFallback() {
+        // Given a generator that fails a batch once and then answers batches with no codes
+        when(delegate.generateCodesAsync(3))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("boom")))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(delegate.generateCodeAsync()).thenReturn(CompletableFuture.completedFuture(CODE));
+
+        // When the first batch is generated, then it fails without single calls
+        assertThat(catchThrowable(() -> generator.generateCodes(3))).isInstanceOf(ServiceUnavailableException.class);
+        verify(delegate, never()).generateCodeAsync();
+
+        // When two more batches are generated
+        assertThat(generator.generateCodes(3)).containsExactly(CODE, CODE, CODE);
+        assertThat(generator.generateCodes(3)).hasSize(3);
+
+        // Then the batch endpoint is not tried again, and every code is generated with a guarded call of its own
+        verify(delegate, times(2)).generateCodesAsync(3);
+        verify(delegate, times(6)).generateCodeAsync();
+        assertThat(guard.getLatencies().count()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,137 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RemoteGuardTest {
+    private final CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofMinutes(1), 1);
+    private final RemoteGuard guard = new RemoteGuard("test service", breaker, 2);
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    @DisplayName("Failures are reported as unavailable, and once the breaker is open the remote is not called at all.")
+    void testFailuresOpenTheBreaker() {
+        // Given a remote that fails twice
+        for (int i = 0; i < 2; i++) {
+            var exception = catchThrowable(() -> guard.call(this::failingCall));
+            assertThat(exception).isInstanceOf(ServiceUnavailableException.class).hasMessageContaining("boom");
+        }
+
+        // When it is called again
+        var exception = catchThrowable(() -> guard.call(this::failingCall));
+
+        // Then the call is rejected without reaching the remote
+        assertThat(exception).isInstanceOf(ServiceUnavailableException.class).hasMessageContaining("circuit breaker is open");
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(guard.getFailures()).isEqualTo(2);
+        assertThat(guard.getBreakerRejections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("The bulkhead rejects calls beyond its size until a call in flight completes.")
+    void testBulkheadRejectsExcessCalls() {
+        // Given two calls in flight
+        var first = new CompletableFuture<String>();
+        var second = new CompletableFuture<String>();
+        guard.callAsync(() -> first);
+        guard.callAsync(() -> second);
+
+        // When a third call is made
+        var third = guard.callAsync(() -> CompletableFuture.completedFuture("third"));
+
+        // Then it is rejected
+        assertThat(catchThrowable(third::join)).hasCauseInstanceOf(ServiceUnavailableException.class);
+        assertThat(guard.getBulkheadRejections()).isEqualTo(1);
+
+        // When one of the calls completes, there is room again
+        first.complete("first");
+        assertThat(guard.callAsync(() -> CompletableFuture.completedFuture("fourth")).join()).isEqualTo("fourth");
+    }
+
+    @Test
+    @DisplayName("A call per item is made a window at a time, so a batch larger than the bulkhead is not rejected.")
+    void testCallEachStaysWithinTheBulkhead() {
+        // Given a remote whose calls are answered later
+        var pending = new ArrayList<CompletableFuture<String>>();
+
+        // When more calls are made than fit in the bulkhead
+        var result = guard.callEach(3, i -> {
+            var call = new CompletableFuture<String>();
+            pending.add(call);
+            return call;
+        });
+
+        // Then the next call is only made once the one before it is answered
+        for (int i = 0; i < 3; i++) {
+            assertThat(pending).hasSize(i + 1);
+            assertThat(guard.getCallsInFlight()).isEqualTo(1);
+            pending.get(i).complete("code " + i);
+        }
+        assertThat(result.join()).containsExactly("code 0", "code 1", "code 2");
+        assertThat(guard.getBulkheadRejections()).isZero();
+    }
+
+    @Test
+    @DisplayName("A call waits at most until the deadline, and no call is made once the deadline has passed.")
+    void testDeadline() {
+        // Given a deadline of 50 milliseconds and a remote that never answers
+        try (var ignored = Deadline.after(Duration.ofMillis(50)).enter()) {
+            // When it is called
+            var exception = catchThrowable(() -> guard.call(CompletableFuture::new));
+
+            // Then the call times out
+            assertThat(exception).isInstanceOf(ServiceUnavailableException.class).hasMessageContaining("deadline");
+        }
+
+        // Given a deadline that has passed
+        try (var ignored = Deadline.after(Duration.ZERO).enter()) {
+            // When the remote is called
+            var exception = catchThrowable(() -> guard.call(this::failingCall));
+
+            // Then it is not called at all
+            assertThat(exception).isInstanceOf(ServiceUnavailableException.class).hasMessageContaining("No time left");
+            assertThat(calls.get()).isZero();
+            assertThat(guard.getDeadlineRejections()).isEqualTo(1);
+        }
+        assertThat(Deadline.current()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A caller that runs out of time does not count against the breaker, the call itself does.")
+    void testDeadlineTimeoutsDoNotOpenTheBreaker() {
+        // Given two calls that answer after the deadline of their caller
+        var late = new CompletableFuture<String>();
+        for (int i = 0; i < 2; i++) {
+            try (var ignored = Deadline.after(Duration.ofMillis(20)).enter()) {
+                // When they are made
+                var exception = catchThrowable(() -> guard.call(() -> late));
+
+                // Then the callers time out
+                assertThat(exception).isInstanceOf(ServiceUnavailableException.class).hasMessageContaining("deadline");
+            }
+        }
+
+        // When the calls do answer
+        late.complete("late");
+
+        // Then the breaker stays closed
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(guard.getDeadlineTimeouts()).isEqualTo(2);
+        assertThat(guard.getFailures()).isZero();
+        assertThat(guard.getCallsInFlight()).isZero();
+    }
+
+    private CompletableFuture<String> failingCall() {
+        calls.incrementAndGet();
+        return CompletableFuture.failedFuture(new IllegalStateException("boom"));
+    }
+}
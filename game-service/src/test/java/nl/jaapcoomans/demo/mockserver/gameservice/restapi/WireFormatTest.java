@@ -0,0 +1,48 @@
+package nl.jaapcoomans.demo.mockserver.gameservice.restapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.Game;
+import nl.jaapcoomans.demo.mockserver.gameservice.domain.GameStatus;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormat;
+import nl.jaapcoomans.demo.mockserver.gameservice.json.DataFormats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WireFormatTest {
+    private final DataFormats formats = new DataFormats(ObjectMapper::new).registerWriter(GameDTO.class, new GameDTOWriter());
+
+    @Test
+    @DisplayName("Every DTO of the API is written in each format as databind writes it.")
+    void testApiDTOs() throws Exception {
+        // Given
+        var games = List.of(createAGame(GameStatus.IN_PROGRESS), createAGame(GameStatus.WON));
+        var dtos = List.of(GameDTO.fromGame(games.get(0)), GamePageDTO.fromGames(games, 2),
+                GamePageDTO.fromGames(games, 10), new ErrorDTO(400, "Game does not exist"));
+
+        for (DataFormat format : DataFormat.values()) {
+            var codecs = formats.codecsFor(format);
+            var mapper = codecs.getObjectMapper();
+
+            // Then
+            for (Object dto : dtos) {
+                assertThat(mapper.readTree(codecs.toJsonBytes(dto)))
+                        .as("%s in %s", dto.getClass().getSimpleName(), format)
+                        .isEqualTo(mapper.readTree(mapper.writeValueAsBytes(dto)));
+            }
+        }
+    }
+
+    private static Game createAGame(GameStatus status) {
+        var game = mock(Game.class);
+        when(game.getId()).thenReturn(UUID.randomUUID());
+        when(game.getStatus()).thenReturn(status);
+        return game;
+    }
+}